@@ -0,0 +1,15 @@
+package study.querydsl.projection;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 붙인 DTO 에 대해 컴파일 시점에 {DTO 이름}Projection 클래스 (querydsl FactoryExpression) 를 만든다
+ * 선언된 인스턴스 필드 순서대로 Expression 을 받고, 기본 생성자 + setter 로 리플렉션 없이 값을 채운다
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.SOURCE)
+public @interface DtoProjection {
+}
@@ -0,0 +1,175 @@
+package study.querydsl.projection;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * {@link DtoProjection} 이 붙은 DTO 마다 FactoryExpressionBase 를 상속한 {DTO 이름}Projection 을 생성한다
+ * newInstance 는 기본 생성자와 setter 를 직접 호출하므로 Projections.bean/fields 처럼 행마다 리플렉션을 쓰지 않는다
+ * setter 는 lombok 이 만든 것이어도 되고 (생성된 코드는 lombok 처리 후 컴파일된다), 이름은 set + 필드명 규칙을 따른다
+ */
+@SupportedAnnotationTypes("study.querydsl.projection.DtoProjection")
+public class DtoProjectionProcessor extends AbstractProcessor {
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(DtoProjection.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error(element, "@DtoProjection can only be used on classes");
+                continue;
+            }
+            TypeElement dto = (TypeElement) element;
+            if (!hasPublicNoArgConstructor(dto)) {
+                error(dto, "@DtoProjection requires a public no-arg constructor");
+                continue;
+            }
+            try {
+                write(dto, properties(dto));
+            } catch (IOException e) {
+                error(dto, "failed to write projection: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private List<VariableElement> properties(TypeElement dto) {
+        return ElementFilter.fieldsIn(dto.getEnclosedElements()).stream()
+                .filter(field -> !field.getModifiers().contains(Modifier.STATIC))
+                .filter(field -> !field.getModifiers().contains(Modifier.TRANSIENT))
+                .toList();
+    }
+
+    private boolean hasPublicNoArgConstructor(TypeElement dto) {
+        //lombok @NoArgsConstructor 가 만드는 생성자는 아직 보이지 않을 수 있으므로 access 값으로 판단한다
+        Optional<String> lombokAccess = lombokNoArgsAccess(dto);
+        if (lombokAccess.isPresent()) {
+            return lombokAccess.get().equals("PUBLIC");
+        }
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(dto.getEnclosedElements());
+        if (constructors.isEmpty()) {
+            return true;
+        }
+        return constructors.stream()
+                .anyMatch(c -> c.getParameters().isEmpty() && c.getModifiers().contains(Modifier.PUBLIC));
+    }
+
+    //@NoArgsConstructor 의 access (생략하면 PUBLIC), 붙어있지 않으면 empty
+    private Optional<String> lombokNoArgsAccess(TypeElement dto) {
+        return dto.getAnnotationMirrors().stream()
+                .filter(mirror -> mirror.getAnnotationType().toString().equals("lombok.NoArgsConstructor"))
+                .findFirst()
+                .map(mirror -> mirror.getElementValues().entrySet().stream()
+                        .filter(entry -> entry.getKey().getSimpleName().contentEquals("access"))
+                        .map(entry -> entry.getValue().getValue())
+                        .map(value -> value instanceof VariableElement constant ? constant.getSimpleName().toString() : value.toString())
+                        .findFirst()
+                        .orElse("PUBLIC"));
+    }
+
+    private void write(TypeElement dto, List<VariableElement> properties) throws IOException {
+        String packageName = ((PackageElement) dto.getEnclosingElement()).getQualifiedName().toString();
+        String dtoName = dto.getSimpleName().toString();
+        String projectionName = dtoName + "Projection";
+
+        try (PrintWriter out = new PrintWriter(processingEnv.getFiler()
+                .createSourceFile(packageName + "." + projectionName, dto).openWriter())) {
+            out.println("package " + packageName + ";");
+            out.println();
+            out.println("import com.querydsl.core.types.Expression;");
+            out.println("import com.querydsl.core.types.FactoryExpressionBase;");
+            out.println("import com.querydsl.core.types.Visitor;");
+            out.println();
+            out.println("import java.util.List;");
+            out.println();
+            out.println("@javax.annotation.processing.Generated(\"" + getClass().getName() + "\")");
+            out.println("public final class " + projectionName + " extends FactoryExpressionBase<" + dtoName + "> {");
+            out.println("    private static final long serialVersionUID = 1L;");
+            out.println();
+            out.println("    private final List<Expression<?>> args;");
+            out.println();
+
+            StringBuilder params = new StringBuilder();
+            StringBuilder names = new StringBuilder();
+            for (VariableElement property : properties) {
+                if (params.length() > 0) {
+                    params.append(", ");
+                    names.append(", ");
+                }
+                params.append("Expression<").append(boxed(property.asType())).append("> ").append(property.getSimpleName());
+                names.append(property.getSimpleName());
+            }
+            out.println("    public " + projectionName + "(" + params + ") {");
+            out.println("        super(" + dtoName + ".class);");
+            out.println("        this.args = List.of(" + names + ");");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public List<Expression<?>> getArgs() {");
+            out.println("        return args;");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public " + dtoName + " newInstance(Object... row) {");
+            out.println("        " + dtoName + " dto = new " + dtoName + "();");
+            for (int i = 0; i < properties.size(); i++) {
+                VariableElement property = properties.get(i);
+                String setter = "set" + capitalize(property.getSimpleName().toString());
+                String value = "(" + boxed(property.asType()) + ") row[" + i + "]";
+                if (property.asType().getKind().isPrimitive()) {
+                    //primitive 는 null 이면 기본값 유지 (Projections.bean 과 같다)
+                    out.println("        if (row[" + i + "] != null) {");
+                    out.println("            dto." + setter + "(" + value + ");");
+                    out.println("        }");
+                } else {
+                    out.println("        dto." + setter + "(" + value + ");");
+                }
+            }
+            out.println("        return dto;");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public <R, C> R accept(Visitor<R, C> v, C context) {");
+            out.println("        return v.visit(this, context);");
+            out.println("    }");
+            out.println("}");
+        }
+    }
+
+    private String boxed(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+        return type.toString();
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
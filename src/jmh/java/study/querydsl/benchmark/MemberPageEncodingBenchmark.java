@@ -0,0 +1,89 @@
+package study.querydsl.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.controller.MemberColumnarPageWriter;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 1000 건 MemberTeamDto 페이지를 JSON / Smile / CBOR / 컬럼 JSON 으로 인코딩하는 시간 비교
+ * 인코딩 결과 크기(원본, gzip)는 setup 에서 한번 출력한다
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MemberPageEncodingBenchmark {
+    @Param({"1000"})
+    int rows;
+
+    PageImpl<MemberTeamDto> page;
+    ObjectMapper json = new ObjectMapper();
+    ObjectMapper smile = new ObjectMapper(new SmileFactory());
+    ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+
+    @Setup
+    public void setup() throws IOException {
+        List<MemberTeamDto> content = new ArrayList<>(rows);
+        for (int i = 1; i <= rows; i++) {
+            long teamId = i % 10;
+            content.add(new MemberTeamDto((long) i, "member" + i, i % 100, teamId, "team" + teamId));
+        }
+        page = new PageImpl<>(content, PageRequest.of(0, rows), rows * 10L);
+
+        report("json", json());
+        report("smile", smile());
+        report("cbor", cbor());
+        report("columnar json", columnarJson());
+    }
+
+    @Benchmark
+    public byte[] json() throws IOException {
+        return json.writeValueAsBytes(page.getContent());
+    }
+
+    @Benchmark
+    public byte[] smile() throws IOException {
+        return smile.writeValueAsBytes(page.getContent());
+    }
+
+    @Benchmark
+    public byte[] cbor() throws IOException {
+        return cbor.writeValueAsBytes(page.getContent());
+    }
+
+    @Benchmark
+    public byte[] columnarJson() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator gen = json.getFactory().createGenerator(out)) {
+            MemberColumnarPageWriter.write(page, gen);
+        }
+        return out.toByteArray();
+    }
+
+    private static void report(String format, byte[] encoded) throws IOException {
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(encoded);
+        }
+        System.out.printf("%n%s: %d bytes, gzip %d bytes%n", format, encoded.length, gzipped.size());
+    }
+}
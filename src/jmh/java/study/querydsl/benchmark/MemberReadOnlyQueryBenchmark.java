@@ -0,0 +1,79 @@
+package study.querydsl.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberTestRepository;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 전체를 관리 엔티티 / readOnly 힌트 / StatelessSession 으로 읽고 flush 하는 시간 비교
+ * 쓰기 트랜잭션 안에서 실행하므로 관리 엔티티는 flush 때 스냅샷과 비교된다
+ * 할당량은 gc 프로파일러 결과(gc.alloc.rate.norm)로 본다
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MemberReadOnlyQueryBenchmark {
+    @Param({"10000"})
+    int rows;
+
+    ConfigurableApplicationContext context;
+    TransactionTemplate transaction;
+    EntityManager em;
+    MemberRepository memberRepository;
+    MemberTestRepository memberTestRepository;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkApplication.start(rows);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        em = context.getBean(EntityManager.class);
+        memberRepository = context.getBean(MemberRepository.class);
+        memberTestRepository = context.getBean(MemberTestRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int managed() {
+        return transaction.execute(status -> {
+            int size = memberRepository.findAll().size();
+            em.flush();
+            return size;
+        });
+    }
+
+    @Benchmark
+    public int readOnlyHint() {
+        return transaction.execute(status -> {
+            int size = memberTestRepository.basicSelectFrom().size();
+            em.flush();
+            return size;
+        });
+    }
+
+    @Benchmark
+    public int stateless() {
+        return transaction.execute(status -> {
+            int size = memberTestRepository.basicSelectStateless().size();
+            em.flush();
+            return size;
+        });
+    }
+}
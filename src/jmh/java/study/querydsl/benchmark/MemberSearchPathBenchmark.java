@@ -0,0 +1,83 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberSqlRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 같은 조건의 search / searchPageComplex 를 JPA 경로와 querydsl-sql 경로로 실행하는 시간 비교
+ * 메모리 H2 에 회원 rows 명 (팀 10개) 을 넣고, 둘 다 읽기 전용 트랜잭션 안에서 실행한다
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MemberSearchPathBenchmark {
+    @Param({"10000"})
+    int rows;
+
+    ConfigurableApplicationContext context;
+    TransactionTemplate readOnly;
+    MemberRepository memberRepository;
+    MemberSqlRepository memberSqlRepository;
+
+    MemberSearchCondition condition = new MemberSearchCondition();
+    PageRequest pageRequest = PageRequest.of(2, 20, Sort.by(Sort.Order.desc("age")));
+
+    @Setup
+    public void setup() {
+        context = BenchmarkApplication.start(rows);
+        memberRepository = context.getBean(MemberRepository.class);
+        memberSqlRepository = context.getBean(MemberSqlRepository.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        condition.setTeamName("team3");
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(60);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> searchJpa() {
+        return readOnly.execute(status -> memberRepository.search(condition));
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> searchSql() {
+        return readOnly.execute(status -> memberSqlRepository.search(condition));
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageJpa() {
+        return readOnly.execute(status -> memberRepository.searchPageComplex(condition, pageRequest));
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageSql() {
+        return readOnly.execute(status -> memberSqlRepository.searchPage(condition, pageRequest));
+    }
+}
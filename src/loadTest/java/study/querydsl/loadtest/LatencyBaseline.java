@@ -0,0 +1,77 @@
+package study.querydsl.loadtest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * 측정값을 "c{동시성}.{모양}.{지표}" 키의 properties 로 읽고 쓰고 기준선과 비교한다
+ * 지연시간(*_ms) 은 기준선보다 tolerance 이상 커지면, throughput 은 tolerance 이상 줄면 회귀로 본다
+ * p99, p99.9 는 흔들림이 커서 tailTolerance 를 따로 쓴다
+ * 기준선에 없는 키는 비교하지 않는다 (새 모양, 새 동시성)
+ */
+final class LatencyBaseline {
+    static final String P50 = "p50_ms";
+    static final String P99 = "p99_ms";
+    static final String P999 = "p99.9_ms";
+    static final String THROUGHPUT = "throughput";
+
+    private LatencyBaseline() {
+    }
+
+    static Map<String, Double> read(Path path) throws IOException {
+        Map<String, Double> values = new TreeMap<>();
+        if (!Files.exists(path)) {
+            return values;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        properties.stringPropertyNames().forEach(key -> values.put(key, Double.parseDouble(properties.getProperty(key))));
+        return values;
+    }
+
+    //키 순서대로 써서 기준선 변경이 diff 로 보이게 한다
+    static void write(Path path, Map<String, Double> values, String comment) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write("# " + comment + System.lineSeparator());
+            for (Map.Entry<String, Double> entry : new TreeMap<>(values).entrySet()) {
+                writer.write(entry.getKey() + "=" + String.format("%.3f", entry.getValue()) + System.lineSeparator());
+            }
+        }
+    }
+
+    static List<String> regressions(Map<String, Double> baseline, Map<String, Double> measured,
+                                     double tolerance, double tailTolerance) {
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : new TreeMap<>(measured).entrySet()) {
+            String key = entry.getKey();
+            Double expected = baseline.get(key);
+            if (expected == null) {
+                continue;
+            }
+            double actual = entry.getValue();
+            if (key.endsWith(THROUGHPUT)) {
+                if (actual < expected * (1 - tolerance)) {
+                    regressions.add(String.format("%s: %.1f req/s < baseline %.1f req/s", key, actual, expected));
+                }
+            } else {
+                double allowed = key.endsWith(P50) ? tolerance : tailTolerance;
+                if (actual > expected * (1 + allowed)) {
+                    regressions.add(String.format("%s: %.2f ms > baseline %.2f ms", key, actual, expected));
+                }
+            }
+        }
+        return regressions;
+    }
+}
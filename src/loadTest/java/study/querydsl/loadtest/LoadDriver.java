@@ -0,0 +1,115 @@
+package study.querydsl.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * concurrency 개의 스레드가 응답을 받자마자 다음 요청을 보내는 closed-loop 부하
+ * warmup 동안의 요청은 기록하지 않고, 모양별로 지연시간을 HdrHistogram 에 나노초 단위로 기록한다
+ * closed-loop 라서 서버가 느려지면 보내는 양도 줄어든다 (coordinated omission), 절대값보다 기준선과의 비교에 쓴다
+ */
+final class LoadDriver {
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final URI base;
+    private final SearchMix mix;
+    private final int rows;
+
+    LoadDriver(URI base, SearchMix mix, int rows) {
+        this.base = base;
+        this.mix = mix;
+        this.rows = rows;
+    }
+
+    Map<SearchMix.Shape, Result> run(int concurrency, Duration warmup, Duration duration) throws Exception {
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long until = measureFrom + duration.toNanos();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<Map<SearchMix.Shape, Result>>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                Random random = new Random(31L * concurrency + i);
+                futures.add(workers.submit(() -> drive(random, measureFrom, until)));
+            }
+            Map<SearchMix.Shape, Result> merged = new EnumMap<>(SearchMix.Shape.class);
+            for (Future<Map<SearchMix.Shape, Result>> future : futures) {
+                future.get().forEach((shape, result) -> merged.computeIfAbsent(shape, s -> new Result()).add(result));
+            }
+            merged.values().forEach(result -> result.seconds = duration.toNanos() / 1e9);
+            return merged;
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private Map<SearchMix.Shape, Result> drive(Random random, long measureFrom, long until) throws IOException, InterruptedException {
+        Map<SearchMix.Shape, Result> results = new EnumMap<>(SearchMix.Shape.class);
+        while (true) {
+            SearchMix.Shape shape = mix.pick(random);
+            HttpRequest request = HttpRequest.newBuilder(base.resolve(shape.path() + "?" + shape.query(random, rows)))
+                    .header("Accept", "application/json")
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            long start = System.nanoTime();
+            if (start >= until) {
+                return results;
+            }
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            long elapsed = System.nanoTime() - start;
+            if (start >= measureFrom) {
+                results.computeIfAbsent(shape, s -> new Result()).record(elapsed, response.statusCode() == 200);
+            }
+        }
+    }
+
+    static final class Result {
+        private final Histogram latency = new Histogram(3);
+        private long errors;
+        private double seconds;
+
+        void record(long nanos, boolean ok) {
+            latency.recordValue(nanos);
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        void add(Result other) {
+            latency.add(other.latency);
+            errors += other.errors;
+        }
+
+        long count() {
+            return latency.getTotalCount();
+        }
+
+        long errors() {
+            return errors;
+        }
+
+        double throughput() {
+            return count() / seconds;
+        }
+
+        double percentileMillis(double percentile) {
+            return latency.getValueAtPercentile(percentile) / 1e6;
+        }
+    }
+}
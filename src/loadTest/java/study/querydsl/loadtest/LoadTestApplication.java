@@ -0,0 +1,61 @@
+package study.querydsl.loadtest;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+/**
+ * 부하 테스트용 애플리케이션, 메모리 H2 에 회원 rows 명 (팀 10개) 을 넣고 임의 포트로 띄운다
+ * 회원 i 는 username "member" + i, 나이 i % 100, 팀 "team" + (i % 10)
+ * 클라이언트가 하나뿐이라 클라이언트별 admission 예산에 걸리지 않도록 예산을 크게 잡는다
+ */
+final class LoadTestApplication {
+    static final int TEAMS = 10;
+
+    private LoadTestApplication() {
+    }
+
+    static ConfigurableApplicationContext start(int rows) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(QuerydslApplication.class)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.properties.hibernate.format_sql=false",
+                        "decorator.datasource.enabled=false",
+                        "logging.level.root=warn",
+                        "server.port=0",
+                        "member.admission.client-budget=1000000000",
+                        "member.admission.client-refill-per-second=1000000000")
+                //application.yml 의 local 프로필(InitMember) 을 덮어쓰려면 커맨드라인 인자로 넘겨야 한다
+                .run("--spring.profiles.active=loadtest");
+
+        EntityManager em = context.getBean(EntityManager.class);
+        new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).executeWithoutResult(status -> {
+            Team[] teams = new Team[TEAMS];
+            for (int i = 0; i < teams.length; i++) {
+                teams[i] = new Team("team" + i);
+                em.persist(teams[i]);
+            }
+            for (int i = 1; i <= rows; i++) {
+                em.persist(new Member("member" + i, i % 100, teams[i % teams.length]));
+                if (i % 1000 == 0) {
+                    em.flush();
+                    em.clear();
+                    for (int t = 0; t < teams.length; t++) {
+                        teams[t] = em.getReference(Team.class, teams[t].getId());
+                    }
+                }
+            }
+        });
+        return context;
+    }
+
+    static int port(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+}
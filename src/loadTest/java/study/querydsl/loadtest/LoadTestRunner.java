@@ -0,0 +1,97 @@
+package study.querydsl.loadtest;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * ./gradlew loadTest 진입점
+ * 앱을 띄우고 동시성 단계마다 검색 모양 섞어서 /v1, /v2 에 부하를 준 뒤 load.report 에 결과를 쓰고
+ * load.baseline 과 비교해서 회귀가 있거나 오류율이 max-error-rate 를 넘으면 종료 코드 1 로 끝난다
+ * load.update-baseline=true 면 비교하지 않고 이번 결과로 기준선을 덮어쓴다 (기준선은 측정한 장비에서만 의미가 있다)
+ * 기준선이 비어 있으면 비교할 것이 없어 항상 통과하게 되므로 부하를 주기 전에 실패한다
+ *
+ * load.rows (100000), load.concurrency (1,8,32), load.mix (SearchMix.DEFAULT),
+ * load.warmup (PT10S), load.duration (PT30S), load.tolerance (0.25), load.tail-tolerance (0.5), load.max-error-rate (0.001)
+ */
+public final class LoadTestRunner {
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rows = Integer.getInteger("load.rows", 100_000);
+        int[] concurrency = Arrays.stream(System.getProperty("load.concurrency", "1,8,32").split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        SearchMix mix = SearchMix.parse(System.getProperty("load.mix", SearchMix.DEFAULT));
+        Duration warmup = Duration.parse(System.getProperty("load.warmup", "PT10S"));
+        Duration duration = Duration.parse(System.getProperty("load.duration", "PT30S"));
+        double tolerance = Double.parseDouble(System.getProperty("load.tolerance", "0.25"));
+        double tailTolerance = Double.parseDouble(System.getProperty("load.tail-tolerance", "0.5"));
+        double maxErrorRate = Double.parseDouble(System.getProperty("load.max-error-rate", "0.001"));
+        boolean updateBaseline = Boolean.getBoolean("load.update-baseline");
+        Path baselinePath = Path.of(System.getProperty("load.baseline", "src/loadTest/baseline.properties"));
+        Path reportPath = Path.of(System.getProperty("load.report", "build/loadtest/results.properties"));
+        Map<String, Double> baseline = LatencyBaseline.read(baselinePath);
+        if (baseline.isEmpty() && !updateBaseline) {
+            System.err.println("no baseline in " + baselinePath
+                    + ", record one on the reference machine with ./gradlew loadTest -Pload.update-baseline=true and commit it");
+            System.exit(1);
+        }
+
+        Map<String, Double> measured = new TreeMap<>();
+        List<String> failures = new ArrayList<>();
+        try (ConfigurableApplicationContext context = LoadTestApplication.start(rows)) {
+            LoadDriver driver = new LoadDriver(URI.create("http://localhost:" + LoadTestApplication.port(context)), mix, rows);
+            System.out.printf("%-6s %-20s %10s %10s %10s %10s %10s %8s%n",
+                    "conc", "shape", "requests", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "errors");
+            for (int threads : concurrency) {
+                Map<SearchMix.Shape, LoadDriver.Result> results = driver.run(threads, warmup, duration);
+                double total = 0;
+                for (Map.Entry<SearchMix.Shape, LoadDriver.Result> entry : results.entrySet()) {
+                    String prefix = "c" + threads + "." + entry.getKey().key() + ".";
+                    LoadDriver.Result result = entry.getValue();
+                    measured.put(prefix + LatencyBaseline.THROUGHPUT, result.throughput());
+                    measured.put(prefix + LatencyBaseline.P50, result.percentileMillis(50));
+                    measured.put(prefix + LatencyBaseline.P99, result.percentileMillis(99));
+                    measured.put(prefix + LatencyBaseline.P999, result.percentileMillis(99.9));
+                    total += result.throughput();
+                    System.out.printf("%-6d %-20s %10d %10.1f %10.2f %10.2f %10.2f %8d%n",
+                            threads, entry.getKey().key(), result.count(), result.throughput(),
+                            result.percentileMillis(50), result.percentileMillis(99), result.percentileMillis(99.9),
+                            result.errors());
+                    if (result.errors() > result.count() * maxErrorRate) {
+                        failures.add(String.format("%s: %d errors in %d requests", prefix + "errors", result.errors(), result.count()));
+                    }
+                }
+                measured.put("c" + threads + "." + LatencyBaseline.THROUGHPUT, total);
+            }
+        }
+
+        String comment = String.format("rows=%d mix=%s warmup=%s duration=%s", rows,
+                System.getProperty("load.mix", SearchMix.DEFAULT), warmup, duration);
+        LatencyBaseline.write(reportPath, measured, comment);
+        System.out.println("results written to " + reportPath);
+        if (updateBaseline) {
+            LatencyBaseline.write(baselinePath, measured, comment);
+            System.out.println("baseline updated: " + baselinePath);
+            return;
+        }
+
+        failures.addAll(LatencyBaseline.regressions(baseline, measured, tolerance, tailTolerance));
+        if (!failures.isEmpty()) {
+            System.err.println("load test regressions against " + baselinePath + ":");
+            failures.forEach(failure -> System.err.println("  " + failure));
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package study.querydsl.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * /v1, /v2 에 보낼 검색 조건 모양과 비율
+ * load.mix=v1.username:2,v2.all:1 처럼 "모양:가중치" 를 콤마로 구분해서 지정한다
+ */
+final class SearchMix {
+    static final String DEFAULT = "v1.username:3,v1.team-age:2,v2.all:2,v2.team-age-sorted:2,v2.username:1";
+
+    enum Shape {
+        V1_USERNAME("v1.username", "/v1") {
+            @Override
+            String query(Random random, int rows) {
+                return "username=member" + (1 + random.nextInt(rows));
+            }
+        },
+        V1_TEAM_AGE("v1.team-age", "/v1") {
+            @Override
+            String query(Random random, int rows) {
+                int age = random.nextInt(90);
+                return "teamName=team" + random.nextInt(LoadTestApplication.TEAMS) + "&ageGoe=" + age + "&ageLoe=" + (age + 9);
+            }
+        },
+        V2_ALL("v2.all", "/v2") {
+            @Override
+            String query(Random random, int rows) {
+                return "page=" + random.nextInt(10) + "&size=20";
+            }
+        },
+        V2_TEAM_AGE_SORTED("v2.team-age-sorted", "/v2") {
+            @Override
+            String query(Random random, int rows) {
+                return "teamName=team" + random.nextInt(LoadTestApplication.TEAMS) + "&ageGoe=" + random.nextInt(90)
+                        + "&page=" + random.nextInt(5) + "&size=20&sort=age,desc";
+            }
+        },
+        V2_USERNAME("v2.username", "/v2") {
+            @Override
+            String query(Random random, int rows) {
+                return "username=member" + (1 + random.nextInt(rows)) + "&size=20";
+            }
+        };
+
+        private final String key;
+        private final String path;
+
+        Shape(String key, String path) {
+            this.key = key;
+            this.path = path;
+        }
+
+        String key() {
+            return key;
+        }
+
+        String path() {
+            return path;
+        }
+
+        abstract String query(Random random, int rows);
+
+        static Shape of(String key) {
+            for (Shape shape : values()) {
+                if (shape.key.equals(key)) {
+                    return shape;
+                }
+            }
+            throw new IllegalArgumentException("unknown search shape: " + key);
+        }
+    }
+
+    //가중치만큼 반복해서 넣어두고 균등하게 뽑는다
+    private final List<Shape> slots = new ArrayList<>();
+
+    static SearchMix parse(String spec) {
+        SearchMix mix = new SearchMix();
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split(":");
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            Shape shape = Shape.of(parts[0].trim());
+            for (int i = 0; i < weight; i++) {
+                mix.slots.add(shape);
+            }
+        }
+        if (mix.slots.isEmpty()) {
+            throw new IllegalArgumentException("empty search mix: " + spec);
+        }
+        return mix;
+    }
+
+    Shape pick(Random random) {
+        return slots.get(random.nextInt(slots.size()));
+    }
+}
@@ -1,25 +1,54 @@
 package study.querydsl.controller;
 
-import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
-import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.search.UsernameAutocomplete;
+import study.querydsl.startup.SeedingHealthIndicator;
+import study.querydsl.startup.StartupTimer;
 
-@Profile("local")
+/**
+ * 기동을 막지 않도록 시드 데이터는 컨텍스트가 뜬 뒤 별도 스레드에서 넣는다
+ * 넣는 동안은 SeedingHealthIndicator 때문에 readiness 가 OUT_OF_SERVICE 라서 트래픽이 들어오지 않는다
+ * fast-start 인스턴스는 이미 데이터가 있는 공용 DB 에 붙으므로 시드하지 않는다
+ */
+@Slf4j
+@Profile("local & !fast-start")
 @Component
 @RequiredArgsConstructor
-public class InitMember {
+public class InitMember implements ApplicationRunner {
     private final InitService initService;
+    private final SeedingHealthIndicator seedingHealthIndicator;
+    private final UsernameAutocomplete usernameAutocomplete;
+    private final StartupTimer startupTimer;
 
-    @PostConstruct
-    public void init() {
-        initService.init();
+    @Override
+    public void run(ApplicationArguments args) {
+        seedingHealthIndicator.started();
+        Thread seeder = new Thread(this::seed, "member-seed");
+        seeder.setDaemon(true);
+        seeder.start();
+    }
+
+    private void seed() {
+        try {
+            initService.init();
+            //자동완성은 ApplicationReadyEvent 때 비어있는 상태로 만들어졌으므로 다시 읽는다
+            usernameAutocomplete.load();
+            seedingHealthIndicator.finished();
+            startupTimer.seeded();
+        } catch (RuntimeException e) {
+            log.error("member seeding failed", e);
+            seedingHealthIndicator.failed(e);
+        }
     }
 
     @Component
@@ -0,0 +1,44 @@
+package study.querydsl.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import study.querydsl.repository.MemberBatchLoader;
+
+/**
+ * 핸들러 단계에서 loadById 로 모인 id 를 핸들러가 끝나면 한번에 조회한다
+ * 뷰 렌더링이나 응답 직렬화에서 future 를 join 해도 멈추지 않도록 afterCompletion 에서도 남은 id 를 처리한다
+ */
+@Configuration
+@RequiredArgsConstructor
+public class MemberBatchDispatcher implements WebMvcConfigurer, HandlerInterceptor {
+    private final ObjectProvider<MemberBatchLoader> batchLoader;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this);
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) {
+        dispatch();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        dispatch();
+    }
+
+    private void dispatch() {
+        MemberBatchLoader loader = batchLoader.getObject();
+        if (loader.hasPending()) {
+            loader.dispatch();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package study.querydsl.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.data.domain.Page;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Page&lt;MemberTeamDto&gt; 를 컬럼 단위 JSON 으로 쓴다
+ * 행마다 필드명을 반복하지 않고 필드마다 배열 하나, 반복되는 teamName 은 사전 인덱스로 쓴다
+ * <pre>
+ * {"page":{"number":0,"size":20,"totalElements":100},
+ *  "columns":{"memberId":[..],"username":[..],"age":[..],"teamId":[..],"teamName":[0,1,null,..]},
+ *  "dictionaries":{"teamName":["teamA","teamB"]}}
+ * </pre>
+ */
+public final class MemberColumnarPageWriter {
+    public static final String MEDIA_TYPE = "application/vnd.member-page.columnar+json";
+
+    private MemberColumnarPageWriter() {
+    }
+
+    public static void write(Page<MemberTeamDto> page, JsonGenerator gen) throws IOException {
+        List<MemberTeamDto> rows = page.getContent();
+
+        gen.writeStartObject();
+        gen.writeObjectFieldStart("page");
+        gen.writeNumberField("number", page.getNumber());
+        gen.writeNumberField("size", page.getSize());
+        gen.writeNumberField("totalElements", page.getTotalElements());
+        gen.writeEndObject();
+
+        gen.writeObjectFieldStart("columns");
+        gen.writeArrayFieldStart("memberId");
+        for (MemberTeamDto row : rows) {
+            writeNullable(gen, row.getMemberId());
+        }
+        gen.writeEndArray();
+        gen.writeArrayFieldStart("username");
+        for (MemberTeamDto row : rows) {
+            gen.writeString(row.getUsername());
+        }
+        gen.writeEndArray();
+        gen.writeArrayFieldStart("age");
+        for (MemberTeamDto row : rows) {
+            gen.writeNumber(row.getAge());
+        }
+        gen.writeEndArray();
+        gen.writeArrayFieldStart("teamId");
+        for (MemberTeamDto row : rows) {
+            writeNullable(gen, row.getTeamId());
+        }
+        gen.writeEndArray();
+
+        Map<String, Integer> teamNameCodes = new HashMap<>();
+        String[] teamNames = new String[rows.size()];
+        gen.writeArrayFieldStart("teamName");
+        for (MemberTeamDto row : rows) {
+            if (row.getTeamName() == null) {
+                gen.writeNull();
+                continue;
+            }
+            Integer code = teamNameCodes.get(row.getTeamName());
+            if (code == null) {
+                code = teamNameCodes.size();
+                teamNameCodes.put(row.getTeamName(), code);
+                teamNames[code] = row.getTeamName();
+            }
+            gen.writeNumber(code);
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+
+        gen.writeObjectFieldStart("dictionaries");
+        gen.writeArrayFieldStart("teamName");
+        for (int i = 0; i < teamNameCodes.size(); i++) {
+            gen.writeString(teamNames[i]);
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+
+        gen.writeEndObject();
+    }
+
+    private static void writeNullable(JsonGenerator gen, Long value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+}
@@ -1,14 +1,28 @@
 package study.querydsl.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.querydsl.core.types.Predicate;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.querydsl.binding.QuerydslPredicate;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import study.querydsl.dto.MemberFacets;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberFilterRepository;
 import study.querydsl.repository.MemberJpaRepository;
 import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.support.QueryDeadline;
+import study.querydsl.search.UsernameAutocomplete;
 
 import java.util.List;
 
@@ -17,13 +31,68 @@ import java.util.List;
 public class MemberController {
     private final MemberJpaRepository repository;
     private final MemberRepository memberRepository;
+    private final UsernameAutocomplete usernameAutocomplete;
+    private final ObjectMapper objectMapper;
+    private final SearchETags searchETags;
+    private final SearchAdmission searchAdmission;
+    private final SearchDeadlines searchDeadlines;
+    private final MemberFilterGuard memberFilterGuard;
+    private final MemberFilterRepository memberFilterRepository;
 
+    //변경이 없으면 쿼리 없이 304
     @GetMapping("/v1")
-    public List<MemberTeamDto> searchV1(MemberSearchCondition condition) {
-        return repository.findByCond_query(condition);
+    public WebAsyncTask<List<MemberTeamDto>> searchV1(MemberSearchCondition condition, WebRequest request) {
+        if (searchETags.checkNotModified(request, "v1", condition, null)) {
+            return null;
+        }
+        SearchAdmission.Admission admission = searchAdmission.admit("v1", request, condition, null);
+        return searchDeadlines.run("v1", () -> admission.getRowLimit() != null
+                ? repository.findByCond_query(condition, admission.getRowLimit())
+                : repository.findByCond_query(condition));
     }
     @GetMapping("/v2")
-    public Page<MemberTeamDto> searchV1(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchPageComplex(condition, pageable);
+    public WebAsyncTask<Page<MemberTeamDto>> searchV1(MemberSearchCondition condition, Pageable pageable, WebRequest request) {
+        if (searchETags.checkNotModified(request, "v2", condition, pageable)) {
+            return null;
+        }
+        Pageable limited = searchAdmission.admit("v2", request, condition, pageable).limit(pageable);
+        return searchDeadlines.run("v2", () -> memberRepository.searchPageComplex(condition, limited));
+    }
+
+    //Accept: application/vnd.member-page.columnar+json 으로 요청하면 컬럼 단위 포맷으로 응답
+    @GetMapping(value = "/v2", produces = MemberColumnarPageWriter.MEDIA_TYPE)
+    public void searchV2Columnar(MemberSearchCondition condition, Pageable pageable,
+                                 WebRequest request, HttpServletResponse response) throws Exception {
+        if (searchETags.checkNotModified(request, "v2", condition, pageable)) {
+            return;
+        }
+        Pageable limited = searchAdmission.admit("v2", request, condition, pageable).limit(pageable);
+        //응답을 직접 쓰므로 비동기로 돌리지 않고 JDBC query timeout 만 건다
+        QueryDeadline deadline = new QueryDeadline(searchDeadlines.timeout("v2"));
+        Page<MemberTeamDto> page = deadline.call(() -> memberRepository.searchPageComplex(condition, limited));
+        response.setContentType(MemberColumnarPageWriter.MEDIA_TYPE);
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            MemberColumnarPageWriter.write(page, gen);
+        }
+    }
+
+    //파트너용 필터 API, ?username=..&age=20&age=29&team.id=1&team.id=2 (MemberRepository.customize 바인딩)
+    @GetMapping("/v3")
+    public WebAsyncTask<Page<MemberTeamDto>> searchV3(@QuerydslPredicate(root = Member.class) Predicate predicate,
+                                                      @RequestParam MultiValueMap<String, String> params,
+                                                      Pageable pageable) {
+        memberFilterGuard.check(params, predicate, pageable);
+        return searchDeadlines.run("v3", () -> memberFilterRepository.search(predicate, pageable));
+    }
+
+    @GetMapping("/members/facets")
+    public MemberFacets facets(MemberSearchCondition condition) {
+        return memberRepository.facets(condition);
+    }
+
+    @GetMapping("/members/autocomplete")
+    public List<String> autocomplete(@RequestParam String prefix,
+                                     @RequestParam(defaultValue = "10") int limit) {
+        return usernameAutocomplete.suggest(prefix, limit);
     }
 }
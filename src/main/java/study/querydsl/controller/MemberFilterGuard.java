@@ -0,0 +1,112 @@
+package study.querydsl.controller;
+
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Operator;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ResponseStatusException;
+import study.querydsl.repository.support.InLists;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * /v3 의 @QuerydslPredicate 조건 검사, 통과하지 못하면 400
+ * - 파라미터는 인덱스가 있는 id, username, age, team.id 와 page, size, sort 만 허용 (바인딩이 모르는 파라미터를 조용히 버리지 않도록)
+ * - 연산자는 and, eq, in, between 만 (or, like, ne 는 인덱스 하나로 처리할 수 없다)
+ * - 조건이 없거나 넓은 나이 범위만 있는 조건은 사실상 전체 스캔이므로 거절
+ * - in 값 개수, 페이지 크기, 페이지 시작 위치(offset)에 상한 (offset 만큼 읽고 버리므로 깊은 페이지는 전체 스캔과 같다)
+ */
+@Component
+public class MemberFilterGuard {
+    private static final Set<String> PAGING = Set.of("page", "size", "sort");
+    private static final Map<String, Path<?>> FILTERS = Map.of(
+            "id", member.id,
+            "username", member.username,
+            "age", member.age,
+            "team.id", member.team.id);
+    private static final Set<Operator> OPERATORS = Set.of(Ops.AND, Ops.EQ, Ops.IN, Ops.BETWEEN);
+
+    private final int maxPageSize;
+    private final int maxAgeSpan;
+    private final long maxOffset;
+
+    public MemberFilterGuard(@Value("${member.filter.max-page-size:100}") int maxPageSize,
+                             @Value("${member.filter.max-age-span:20}") int maxAgeSpan,
+                             @Value("${member.filter.max-offset:10000}") long maxOffset) {
+        this.maxPageSize = maxPageSize;
+        this.maxAgeSpan = maxAgeSpan;
+        this.maxOffset = maxOffset;
+    }
+
+    public void check(MultiValueMap<String, String> params, Predicate predicate, Pageable pageable) {
+        for (Map.Entry<String, List<String>> param : params.entrySet()) {
+            String name = param.getKey();
+            if (!FILTERS.containsKey(name) && !PAGING.contains(name)) {
+                throw reject("unsupported filter: " + name + ", allowed: " + FILTERS.keySet());
+            }
+            if (name.equals("age") && param.getValue().size() > 2) {
+                throw reject("age takes one value (eq) or two values (between)");
+            }
+            if (param.getValue().size() > InLists.MAX_CHUNK) {
+                throw reject(name + " takes at most " + InLists.MAX_CHUNK + " values");
+            }
+        }
+        if (pageable.getPageSize() > maxPageSize) {
+            throw reject("page size must be at most " + maxPageSize);
+        }
+        if (pageable.isPaged() && pageable.getOffset() > maxOffset) {
+            throw reject("page * size must be at most " + maxOffset + ", narrow the filter instead");
+        }
+        if (predicate == null) {
+            throw reject("at least one filter of " + FILTERS.keySet() + " is required");
+        }
+        checkExpression(predicate);
+        if (onlyAgeFilter(params) && ageSpan(params.get("age")) > maxAgeSpan) {
+            throw reject("age range wider than " + maxAgeSpan + " needs another filter");
+        }
+    }
+
+    private void checkExpression(Expression<?> expression) {
+        if (expression instanceof Operation<?> operation) {
+            if (!OPERATORS.contains(operation.getOperator())) {
+                throw reject("unsupported operator: " + operation.getOperator());
+            }
+            operation.getArgs().forEach(this::checkExpression);
+        } else if (expression instanceof Path<?> path) {
+            if (!FILTERS.containsValue(path)) {
+                throw reject("unsupported path: " + path);
+            }
+        } else if (!(expression instanceof Constant<?>)) {
+            throw reject("unsupported expression: " + expression);
+        }
+    }
+
+    private static boolean onlyAgeFilter(MultiValueMap<String, String> params) {
+        return params.keySet().stream().filter(FILTERS::containsKey).allMatch("age"::equals);
+    }
+
+    private static long ageSpan(List<String> ages) {
+        if (ages == null || ages.size() < 2) {
+            return 0;
+        }
+        long first = Long.parseLong(ages.get(0));
+        long second = Long.parseLong(ages.get(1));
+        return Math.abs(first - second);
+    }
+
+    private static ResponseStatusException reject(String reason) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, reason);
+    }
+}
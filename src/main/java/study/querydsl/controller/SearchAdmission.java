@@ -0,0 +1,160 @@
+package study.querydsl.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.SearchCostEstimator;
+import study.querydsl.repository.SearchCostEstimator.SearchCost;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 검색 비용을 추정해서 비싼 요청을 제한한다
+ * - cheap-cost 이하(인덱스로 몇 건만 읽는 조회)는 그대로 통과
+ * - 페이징 없는 요청이 max-rows 를 넘으면 max-rows 건으로 자르고 X-Result-Capped 응답 헤더로 알린다 (capped)
+ *   호출하는 쪽은 Admission 의 rowLimit 을 실제 조회에 적용해야 한다 (/v1 은 limit, /v2 는 limit(pageable))
+ * - 그 외에는 클라이언트별 비용 버킷에서 차감하고, 모자라면 429 (rejected)
+ *   클라이언트는 요청 헤더가 아니라 접속 주소로 구분한다 (프록시 뒤라면 server.forward-headers-strategy 로 신뢰하는 프록시의 주소만 반영)
+ * 결과는 member.search.admission{endpoint, outcome} 카운터로 남긴다
+ */
+@Component
+public class SearchAdmission {
+    public static final String CAPPED_HEADER = "X-Result-Capped";
+    private static final int MAX_TRACKED_CLIENTS = 10_000;
+
+    private final SearchCostEstimator costEstimator;
+    private final MeterRegistry meterRegistry;
+    private final long cheapCost;
+    private final long maxRows;
+    private final long budget;
+    private final long refillPerSecond;
+    private final Map<String, CostBucket> buckets = new ConcurrentHashMap<>();
+
+    public SearchAdmission(SearchCostEstimator costEstimator,
+                           MeterRegistry meterRegistry,
+                           @Value("${member.admission.cheap-cost:1000}") long cheapCost,
+                           @Value("${member.admission.max-rows:1000}") long maxRows,
+                           @Value("${member.admission.client-budget:200000}") long budget,
+                           @Value("${member.admission.client-refill-per-second:50000}") long refillPerSecond) {
+        this.costEstimator = costEstimator;
+        this.meterRegistry = meterRegistry;
+        this.cheapCost = cheapCost;
+        this.maxRows = maxRows;
+        this.budget = budget;
+        this.refillPerSecond = refillPerSecond;
+    }
+
+    /**
+     * 허용되면 적용할 행 수 제한을 담아 반환하고, 거절되면 429 ResponseStatusException
+     */
+    public Admission admit(String endpoint, WebRequest request, MemberSearchCondition cond, Pageable pageable) {
+        SearchCost cost = costEstimator.estimate(cond, pageable);
+        if (cost.getCost() <= cheapCost) {
+            return record(endpoint, Admission.admitted());
+        }
+
+        Admission admission = Admission.admitted();
+        boolean paged = pageable != null && pageable.isPaged();
+        if (!paged && cost.getReturnedRows() > maxRows) {
+            cost = cost.limitTo(maxRows);
+            admission = Admission.capped((int) maxRows);
+        }
+
+        if (buckets.size() > MAX_TRACKED_CLIENTS) {
+            buckets.clear();
+        }
+        CostBucket bucket = buckets.computeIfAbsent(remoteAddress(request), key -> new CostBucket(budget));
+        if (!bucket.tryConsume(cost.getCost(), budget, refillPerSecond)) {
+            record(endpoint, Admission.rejected());
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                    "search too expensive for remaining budget: " + cost);
+        }
+        if (admission.getRowLimit() != null) {
+            markCapped(request, admission.getRowLimit());
+        }
+        return record(endpoint, admission);
+    }
+
+    private Admission record(String endpoint, Admission admission) {
+        meterRegistry.counter("member.search.admission", "endpoint", endpoint, "outcome", admission.getOutcome()).increment();
+        return admission;
+    }
+
+    private static String remoteAddress(WebRequest request) {
+        HttpServletRequest servletRequest = request instanceof NativeWebRequest nativeRequest
+                ? nativeRequest.getNativeRequest(HttpServletRequest.class) : null;
+        return servletRequest != null ? servletRequest.getRemoteAddr() : "unknown";
+    }
+
+    //비동기 처리 전에 헤더를 넣어 두면 잘린 결과와 함께 나간다
+    private static void markCapped(WebRequest request, int rowLimit) {
+        HttpServletResponse servletResponse = request instanceof NativeWebRequest nativeRequest
+                ? nativeRequest.getNativeResponse(HttpServletResponse.class) : null;
+        if (servletResponse != null) {
+            servletResponse.setHeader(CAPPED_HEADER, String.valueOf(rowLimit));
+        }
+    }
+
+    @Getter
+    public static class Admission {
+        private final String outcome;
+        private final Integer rowLimit;
+
+        private Admission(String outcome, Integer rowLimit) {
+            this.outcome = outcome;
+            this.rowLimit = rowLimit;
+        }
+
+        //잘린 경우 페이지 크기를 rowLimit 으로 줄인다 (페이징 없는 요청만 잘리므로 첫 페이지)
+        public Pageable limit(Pageable pageable) {
+            if (rowLimit == null || pageable.isPaged() && pageable.getPageSize() <= rowLimit) {
+                return pageable;
+            }
+            return PageRequest.of(0, rowLimit, pageable.getSort());
+        }
+
+        static Admission admitted() {
+            return new Admission("admitted", null);
+        }
+
+        static Admission capped(int rowLimit) {
+            return new Admission("capped", rowLimit);
+        }
+
+        static Admission rejected() {
+            return new Admission("rejected", null);
+        }
+    }
+
+    //초당 refillPerSecond 만큼 채워지는 비용 버킷
+    private static class CostBucket {
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        CostBucket(long budget) {
+            this.tokens = budget;
+        }
+
+        synchronized boolean tryConsume(long cost, long budget, long refillPerSecond) {
+            long now = System.nanoTime();
+            tokens = Math.min(budget, tokens + (now - refilledAt) / 1_000_000_000.0 * refillPerSecond);
+            refilledAt = now;
+            if (tokens < cost) {
+                return false;
+            }
+            tokens -= cost;
+            return true;
+        }
+    }
+}
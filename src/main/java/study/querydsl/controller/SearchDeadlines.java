@@ -0,0 +1,47 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.server.ResponseStatusException;
+import study.querydsl.repository.support.QueryDeadline;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * 엔드포인트별 마감 시간(member.query-timeout.{endpoint}, 기본 member.query-timeout.default) 안에서 검색을 실행한다
+ * 비동기 요청으로 실행해서 마감 시간이 지나거나 컨테이너가 비동기 오류를 알리면(onError) 실행 중인 쿼리를 취소하고 커넥션을 돌려준다
+ * 어느 쪽이든 빈 200 이 아니라 에러 응답으로 끝낸다 (마감 초과 503, 그 외 500)
+ * 쿼리 실행 중에는 응답에 아무것도 쓰지 않으므로 클라이언트가 연결을 끊어도 컨테이너는 알지 못한다, 그런 쿼리는 마감까지 실행된다
+ */
+@Component
+@RequiredArgsConstructor
+public class SearchDeadlines {
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(5);
+
+    private final Environment environment;
+
+    public <T> WebAsyncTask<T> run(String endpoint, Callable<T> search) {
+        Duration timeout = timeout(endpoint);
+        QueryDeadline deadline = new QueryDeadline(timeout);
+        WebAsyncTask<T> task = new WebAsyncTask<>(timeout.toMillis(), () -> deadline.call(search));
+        task.onTimeout(() -> {
+            deadline.cancel();
+            throw new AsyncRequestTimeoutException();
+        });
+        task.onError(() -> {
+            deadline.cancel();
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "search aborted: " + endpoint);
+        });
+        return task;
+    }
+
+    public Duration timeout(String endpoint) {
+        Duration fallback = environment.getProperty("member.query-timeout.default", Duration.class, DEFAULT_TIMEOUT);
+        return environment.getProperty("member.query-timeout." + endpoint, Duration.class, fallback);
+    }
+}
@@ -0,0 +1,53 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.WebRequest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.support.TableVersions;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 검색 응답의 ETag = member/team 테이블 버전 + 정규화한 검색 조건 + 페이지 + Accept
+ * 버전은 커밋 이후에 올라가므로 SQL 을 실행하지 않고 If-None-Match 를 비교할 수 있다
+ * 같은 데이터를 JSON / Smile / CBOR 로 줄 수 있어서 weak ETag 를 쓴다
+ */
+@Component
+@RequiredArgsConstructor
+public class SearchETags {
+    private final TableVersions tableVersions;
+
+    /**
+     * If-None-Match 가 현재 ETag 와 같으면 304 응답을 준비하고 true 를 반환
+     */
+    public boolean checkNotModified(WebRequest request, String endpoint, MemberSearchCondition cond, Pageable pageable) {
+        return request.checkNotModified(of(endpoint, cond, pageable, request.getHeader(HttpHeaders.ACCEPT)));
+    }
+
+    public String of(String endpoint, MemberSearchCondition cond, Pageable pageable, String accept) {
+        StringBuilder key = new StringBuilder(endpoint)
+                .append('|').append(tableVersions.get(TableVersions.MEMBER))
+                .append('|').append(tableVersions.get(TableVersions.TEAM))
+                .append('|').append(normalize(cond.getUsername()))
+                .append('|').append(normalize(cond.getTeamName()))
+                .append('|').append(cond.getAgeGoe())
+                .append('|').append(cond.getAgeLoe())
+                .append('|').append(accept);
+        if (pageable != null && pageable.isPaged()) {
+            key.append('|').append(pageable.getPageNumber())
+                    .append('|').append(pageable.getPageSize())
+                    .append('|').append(pageable.getSort());
+        }
+        return "W/\"" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    //검색 조건과 같은 규칙 (공백뿐인 값은 조건 없음)
+    private static String normalize(String value) {
+        return StringUtils.hasText(value) ? value : null;
+    }
+}
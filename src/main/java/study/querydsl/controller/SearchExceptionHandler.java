@@ -0,0 +1,22 @@
+package study.querydsl.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import study.querydsl.repository.MemberSorts;
+
+/**
+ * 저장소 계층 예외를 HTTP 응답으로 바꾼다, 저장소 클래스에는 웹 어노테이션을 두지 않는다
+ * 비동기(WebAsyncTask) 검색에서 던져진 예외도 디스패치된 뒤 여기로 온다
+ */
+@RestControllerAdvice
+public class SearchExceptionHandler {
+
+    @ExceptionHandler(MemberSorts.UnsupportedSortException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ProblemDetail unsupportedSort(MemberSorts.UnsupportedSortException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+}
@@ -3,8 +3,10 @@ package study.querydsl.dto;
 import com.querydsl.core.annotations.QueryProjection;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import study.querydsl.projection.DtoProjection;
 
 @Data
+@DtoProjection
 @NoArgsConstructor
 public class MemberDto {
     private String username;
@@ -0,0 +1,17 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 검색 조건에 대한 팀별 / 나이대별 회원 수
+ * teams 는 teamName 조건을 제외하고, ageBuckets 는 나이 조건을 제외하고 센다 (선택지에 다른 값도 보여주기 위해)
+ * 팀이 없는 회원은 teams 에 포함되지 않는다
+ */
+@Data
+public class MemberFacets {
+    private final long total;
+    private final Map<String, Long> teams;
+    private final Map<String, Long> ageBuckets;
+}
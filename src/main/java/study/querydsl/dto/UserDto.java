@@ -3,8 +3,10 @@ package study.querydsl.dto;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import study.querydsl.projection.DtoProjection;
 
 @Data
+@DtoProjection
 @AllArgsConstructor
 @NoArgsConstructor
 public class UserDto {
@@ -2,12 +2,21 @@ package study.querydsl.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.Hibernate;
+
+import java.time.LocalDateTime;
 
 @Entity
 @Getter
 @Setter
 @ToString(of = {"id","username","age"})
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Table(indexes = {
+        @Index(name = "idx_member_username", columnList = "username"),
+        @Index(name = "idx_member_age", columnList = "age"),
+        @Index(name = "idx_member_team_age", columnList = "team_id, age"),
+        @Index(name = "idx_member_last_active_at", columnList = "last_active_at")
+})
 public class Member {
     @Id
     @GeneratedValue
@@ -22,6 +31,10 @@ public class Member {
     @JoinColumn(name = "team_id")
     private Team team;
 
+    //MemberArchiver 가 오래된 회원을 member_archive 로 옮기는 기준, 엔티티로 저장/변경될 때만 갱신된다
+    @Column(name = "last_active_at")
+    private LocalDateTime lastActiveAt;
+
     public Member(String username) {
         this(username, 0);
     }
@@ -38,8 +51,24 @@ public class Member {
         }
     }
 
+    //반대편 members 는 이미 로딩된 경우에만 맞춰준다, 팀 이동 때문에 팀 전체 회원을 로딩하지 않는다
     public void changeTeam(Team team) {
+        if (isMembersLoaded(this.team)) {
+            this.team.getMembers().remove(this);
+        }
         this.team = team;
-        team.getMembers().add(this);
+        if (isMembersLoaded(team)) {
+            team.getMembers().add(this);
+        }
+    }
+
+    private static boolean isMembersLoaded(Team team) {
+        return team != null && Hibernate.isInitialized(team) && Hibernate.isInitialized(team.getMembers());
+    }
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        lastActiveAt = LocalDateTime.now();
     }
 }
@@ -0,0 +1,37 @@
+package study.querydsl.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * MemberArchiver 가 member 에서 옮겨 온 비활성 회원 (cold)
+ * member_id 는 원래 값을 그대로 쓰고, 팀은 연관관계 없이 id 만 들고 있어서 팀 삭제나 조회에 묶이지 않는다
+ * MemberRepositoryCustom.search(cond, true) 에서만 읽는다
+ */
+@Entity
+@Getter
+@ToString(of = {"id", "username", "age"})
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Table(name = "member_archive", indexes = {
+        @Index(name = "idx_member_archive_username", columnList = "username")
+})
+public class MemberArchive {
+    @Id
+    @Column(name = "member_id")
+    private Long id;
+
+    private String username;
+
+    private int age;
+
+    @Column(name = "team_id")
+    private Long teamId;
+
+    @Column(name = "last_active_at")
+    private LocalDateTime lastActiveAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
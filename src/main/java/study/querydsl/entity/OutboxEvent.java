@@ -0,0 +1,37 @@
+package study.querydsl.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * member / team 변경 outbox, 변경과 같은 트랜잭션에서 OutboxWriter 가 JDBC 로 insert 하고
+ * OutboxTailer 가 id 순으로 읽어 발행한 뒤 지운다
+ */
+@Entity
+@Getter
+@ToString(of = {"id", "aggregateType", "aggregateId", "eventType"})
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Table(name = "member_outbox")
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "outbox_id")
+    private Long id;
+
+    @Column(name = "aggregate_type", nullable = false)
+    private String aggregateType;
+
+    @Column(name = "aggregate_id")
+    private Long aggregateId;
+
+    @Column(name = "event_type", nullable = false)
+    private String eventType;
+
+    @Lob
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -11,6 +11,7 @@ import java.util.List;
 @Setter
 @ToString(of = {"id","name"})
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Table(indexes = @Index(name = "idx_team_name", columnList = "name"))
 public class Team {
     @Id
     @GeneratedValue
@@ -0,0 +1,18 @@
+package study.querydsl.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * 회원들이 member 에서 member_archive 로 옮겨진 경우 (usernames 는 memberIds 와 같은 순서)
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class MemberArchivedEvent {
+    private final List<Long> memberIds;
+    private final List<String> usernames;
+}
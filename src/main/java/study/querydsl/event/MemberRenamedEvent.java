@@ -0,0 +1,20 @@
+package study.querydsl.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * 벌크 업데이트로 여러 회원의 username 이 한번에 바뀐 경우
+ * 영속성 컨텍스트를 거치지 않으므로 이전 값을 같이 전달한다
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class MemberRenamedEvent {
+    private final List<Long> memberIds;
+    private final List<String> previousUsernames;
+    private final String username;
+}
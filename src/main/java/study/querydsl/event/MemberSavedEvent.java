@@ -0,0 +1,29 @@
+package study.querydsl.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class MemberSavedEvent {
+    private final Long memberId;
+    private final String username;
+    private final int age;
+    private final Long teamId;
+    private final String teamName;
+
+    //커밋 이후 리스너에서 지연 로딩이 일어나지 않도록 저장 시점의 값을 복사해 둔다
+    public static MemberSavedEvent of(Member member) {
+        Team team = member.getTeam();
+        return new MemberSavedEvent(
+                member.getId(),
+                member.getUsername(),
+                member.getAge(),
+                team != null ? team.getId() : null,
+                team != null ? team.getName() : null);
+    }
+}
@@ -0,0 +1,19 @@
+package study.querydsl.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * 여러 회원의 팀이 한번에 바뀐 경우 (teamId 가 null 이면 팀에서 빠짐)
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class MemberTeamChangedEvent {
+    private final List<Long> memberIds;
+    private final Long teamId;
+    private final String teamName;
+}
@@ -0,0 +1,19 @@
+package study.querydsl.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+/**
+ * 기본 sink, 프로세스 안의 @EventListener(OutboxMessage) 로 순서대로 발행한다
+ */
+@RequiredArgsConstructor
+public class ApplicationEventOutboxSink implements OutboxSink {
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void publish(List<OutboxMessage> batch) {
+        batch.forEach(eventPublisher::publishEvent);
+    }
+}
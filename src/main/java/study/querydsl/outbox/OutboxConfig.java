@@ -0,0 +1,51 @@
+package study.querydsl.outbox;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+import java.util.List;
+
+@Configuration
+public class OutboxConfig {
+
+    //OutboxWriter 는 EntityManager 를 쓰므로 EntityManagerFactory 생성 시점에는 lazy 프록시로 넘긴다
+    @Bean
+    public HibernatePropertiesCustomizer outboxEntityListener(@Lazy OutboxWriter outboxWriter) {
+        OutboxEntityListener listener = new OutboxEntityListener(outboxWriter);
+        return properties -> properties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER,
+                (IntegratorProvider) () -> List.of(new Integrator() {
+                    @Override
+                    public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                                          SessionFactoryImplementor sessionFactory) {
+                        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+                        registry.appendListeners(EventType.POST_INSERT, listener);
+                        registry.appendListeners(EventType.POST_UPDATE, listener);
+                        registry.appendListeners(EventType.POST_DELETE, listener);
+                    }
+
+                    @Override
+                    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+                    }
+                }));
+    }
+
+    //다른 OutboxSink 빈을 등록하면 (메시지 브로커, 검색 인덱스 등) 그쪽을 쓴다
+    @Bean
+    @ConditionalOnMissingBean(OutboxSink.class)
+    public OutboxSink applicationEventOutboxSink(ApplicationEventPublisher eventPublisher) {
+        return new ApplicationEventOutboxSink(eventPublisher);
+    }
+}
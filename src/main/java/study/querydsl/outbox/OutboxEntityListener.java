@@ -0,0 +1,41 @@
+package study.querydsl.outbox;
+
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+/**
+ * flush 중 Member / Team 의 insert, update, delete 를 OutboxWriter 로 넘긴다 (그 외 엔티티는 무시)
+ */
+class OutboxEntityListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+    private final OutboxWriter outboxWriter;
+
+    OutboxEntityListener(OutboxWriter outboxWriter) {
+        this.outboxWriter = outboxWriter;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        outboxWriter.entityChanged(event.getSession(), "INSERT", event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        outboxWriter.entityChanged(event.getSession(), "UPDATE", event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        outboxWriter.entityChanged(event.getSession(), "DELETE", event.getEntity());
+    }
+
+    //커밋 전에 같은 트랜잭션으로 기록해야 하므로 커밋 후 처리는 필요 없다
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+}
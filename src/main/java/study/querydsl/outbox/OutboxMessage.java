@@ -0,0 +1,34 @@
+package study.querydsl.outbox;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import study.querydsl.entity.OutboxEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * OutboxSink 로 전달되는 변경 이벤트 (id 순)
+ * aggregateId 는 벌크 변경이면 null 이고 대상 id 들은 payload(JSON) 에 들어있다
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class OutboxMessage {
+    private final Long id;
+    private final String aggregateType;
+    private final Long aggregateId;
+    private final String eventType;
+    private final String payload;
+    private final LocalDateTime createdAt;
+
+    public static OutboxMessage of(OutboxEvent event) {
+        return new OutboxMessage(
+                event.getId(),
+                event.getAggregateType(),
+                event.getAggregateId(),
+                event.getEventType(),
+                event.getPayload(),
+                event.getCreatedAt());
+    }
+}
@@ -0,0 +1,10 @@
+package study.querydsl.outbox;
+
+import java.util.List;
+
+/**
+ * OutboxTailer 가 읽은 변경을 받는 곳, 예외를 던지면 배치는 지워지지 않고 다음 poll 에 다시 전달된다 (at-least-once)
+ */
+public interface OutboxSink {
+    void publish(List<OutboxMessage> batch);
+}
@@ -0,0 +1,64 @@
+package study.querydsl.outbox;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.OutboxEvent;
+import study.querydsl.repository.support.InLists;
+
+import java.util.List;
+
+import static study.querydsl.entity.QOutboxEvent.outboxEvent;
+
+/**
+ * member_outbox 를 id 순으로 batch-size 만큼 읽어 OutboxSink 로 넘기고, 성공하면 같은 트랜잭션에서 지운다
+ * 읽은 위치를 기억하지 않고 지우는 방식이라 늦게 커밋된 작은 id 도 빠지지 않는다
+ * 순서는 트랜잭션 단위로만 보장한다, 한 트랜잭션의 변경은 변경 순서 그대로 나가지만 전역 커밋 순서는 아니다
+ * (id 는 insert 시점에 정해지므로 먼저 insert 하고 늦게 커밋한 트랜잭션의 변경이 이미 내보낸 다른 트랜잭션의 변경보다 뒤에 나갈 수 있다,
+ *  소비하는 쪽은 aggregate 별 최신 상태로 덮어쓰는 방식이어야 한다)
+ * 스케줄러 스레드 하나에서만 돌기 때문에 같은 행을 동시에 읽는 poll 은 없다
+ */
+@Component
+public class OutboxTailer {
+    private final JPAQueryFactory queryFactory;
+    private final OutboxSink outboxSink;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public OutboxTailer(EntityManager em, OutboxSink outboxSink,
+                        @Value("${member.outbox.enabled:false}") boolean enabled,
+                        @Value("${member.outbox.batch-size:500}") int batchSize) {
+        this.queryFactory = new JPAQueryFactory(em);
+        this.outboxSink = outboxSink;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${member.outbox.poll-interval:PT1S}")
+    @Transactional
+    public int poll() {
+        if (!enabled) {
+            return 0;
+        }
+        List<OutboxEvent> batch = queryFactory
+                .selectFrom(outboxEvent)
+                .orderBy(outboxEvent.id.asc())
+                .limit(batchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .fetch();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        outboxSink.publish(batch.stream().map(OutboxMessage::of).toList());
+
+        List<Long> ids = batch.stream().map(OutboxEvent::getId).toList();
+        for (List<Long> chunk : InLists.chunks(ids, InLists.MAX_CHUNK)) {
+            queryFactory.delete(outboxEvent).where(outboxEvent.id.in(chunk)).execute();
+        }
+        return batch.size();
+    }
+}
@@ -0,0 +1,172 @@
+package study.querydsl.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.event.MemberArchivedEvent;
+import study.querydsl.event.MemberRenamedEvent;
+import study.querydsl.event.MemberTeamChangedEvent;
+import study.querydsl.repository.support.BulkChangeListener;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * member_outbox 에 변경을 기록한다, 항상 변경한 세션의 커넥션으로 써서 변경과 함께 커밋/롤백된다
+ * 엔티티 insert/update/delete 는 OutboxEntityListener 가 flush 중에 호출하므로 쿼리가 아니라 JDBC 로 직접 insert 한다
+ * 벌크 연산은 hibernate 이벤트가 없으므로 MemberJpaRepository 가 발행하는 이벤트를 트랜잭션 안에서 받아서 기록한다
+ * 그 외의 member / team 벌크 update, delete 는 TableChangeInspector 가 알려주는 SQL 을 모아 커밋 직전에 BULK 로 한번 기록한다
+ * (대상 id 를 알 수 없으므로 BULK 를 받은 쪽은 해당 테이블을 다시 읽어야 한다)
+ * 엔티티로 바뀐 회원은 UPDATE 와 TEAM_CHANGE 가 같이 남을 수 있다, 둘 다 변경 후 상태이므로 소비하는 쪽은 덮어쓰기로 처리한다
+ */
+@Component
+public class OutboxWriter implements BulkChangeListener {
+    public static final String MEMBER = "MEMBER";
+    public static final String TEAM = "TEAM";
+    private static final Map<String, String> AGGREGATES = Map.of("member", MEMBER, "team", TEAM);
+    private static final String PENDING_BULK = OutboxWriter.class.getName() + ".pendingBulk";
+
+    private static final String INSERT = "insert into member_outbox (aggregate_type, aggregate_id, event_type, payload, created_at)" +
+            " values (?, ?, ?, ?, ?)";
+
+    private final EntityManager em;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    public OutboxWriter(EntityManager em, ObjectMapper objectMapper,
+                        @Value("${member.outbox.enabled:false}") boolean enabled) {
+        this.em = em;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    public void entityChanged(Session session, String eventType, Object entity) {
+        if (!enabled) {
+            return;
+        }
+        if (entity instanceof Member changed) {
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("memberId", changed.getId());
+            payload.put("username", changed.getUsername());
+            payload.put("age", changed.getAge());
+            payload.put("teamId", changed.getTeam() != null ? changed.getTeam().getId() : null);
+            write(session, MEMBER, changed.getId(), eventType, payload);
+        } else if (entity instanceof Team changed) {
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("teamId", changed.getId());
+            payload.put("name", changed.getName());
+            write(session, TEAM, changed.getId(), eventType, payload);
+        }
+    }
+
+    @EventListener
+    public void onRenamed(MemberRenamedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("memberIds", event.getMemberIds());
+        payload.put("username", event.getUsername());
+        write(em.unwrap(Session.class), MEMBER, null, "RENAME", payload);
+    }
+
+    @EventListener
+    public void onTeamChanged(MemberTeamChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("memberIds", event.getMemberIds());
+        payload.put("teamId", event.getTeamId());
+        payload.put("teamName", event.getTeamName());
+        write(em.unwrap(Session.class), MEMBER, null, "TEAM_CHANGE", payload);
+    }
+
+    @EventListener
+    public void onArchived(MemberArchivedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("memberIds", event.getMemberIds());
+        write(em.unwrap(Session.class), MEMBER, null, "ARCHIVE", payload);
+    }
+
+    @Override
+    public void bulkChanged(String table, String sql) {
+        String aggregateType = AGGREGATES.get(table);
+        //벌크 update / delete 는 트랜잭션 안에서만 실행된다
+        if (!enabled || aggregateType == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        pendingBulk().computeIfAbsent(aggregateType, key -> new ArrayList<>()).add(sql);
+    }
+
+    //트랜잭션당 한번 등록하고, 커밋 직전에 같은 트랜잭션으로 기록한다
+    @SuppressWarnings("unchecked")
+    private Map<String, List<String>> pendingBulk() {
+        Map<String, List<String>> pending = (Map<String, List<String>>) TransactionSynchronizationManager.getResource(PENDING_BULK);
+        if (pending != null) {
+            return pending;
+        }
+        Map<String, List<String>> created = new LinkedHashMap<>();
+        TransactionSynchronizationManager.bindResource(PENDING_BULK, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                Session session = em.unwrap(Session.class);
+                created.forEach((aggregateType, statements) -> {
+                    Map<String, Object> payload = new LinkedHashMap<>();
+                    payload.put("statements", statements);
+                    write(session, aggregateType, null, "BULK", payload);
+                });
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_BULK);
+            }
+        });
+        return created;
+    }
+
+    private void write(Session session, String aggregateType, Long aggregateId, String eventType, Map<String, Object> payload) {
+        String json = toJson(payload);
+        session.doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+                statement.setString(1, aggregateType);
+                if (aggregateId != null) {
+                    statement.setLong(2, aggregateId);
+                } else {
+                    statement.setNull(2, Types.BIGINT);
+                }
+                statement.setString(3, eventType);
+                statement.setString(4, json);
+                statement.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now()));
+                statement.executeUpdate();
+            }
+        });
+    }
+
+    private String toJson(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
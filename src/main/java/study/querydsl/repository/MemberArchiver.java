@@ -0,0 +1,59 @@
+package study.querydsl.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * inactive-after 동안 활동이 없는 회원을 batch-size 단위로 member_archive 로 옮겨서 member 테이블과 인덱스를 작게 유지한다
+ * 배치마다 트랜잭션을 나눠서 한번에 잡는 락과 undo 를 batch-size 로 제한한다
+ * 옮긴 회원은 MemberRepositoryCustom.search(cond, true) 에서만 보인다
+ */
+@Slf4j
+@Component
+public class MemberArchiver {
+    private final MemberJpaRepository memberJpaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration inactiveAfter;
+    private final int batchSize;
+
+    public MemberArchiver(MemberJpaRepository memberJpaRepository, PlatformTransactionManager transactionManager,
+                          @Value("${member.archive.enabled:false}") boolean enabled,
+                          @Value("${member.archive.inactive-after:P365D}") Duration inactiveAfter,
+                          @Value("${member.archive.batch-size:1000}") int batchSize) {
+        this.memberJpaRepository = memberJpaRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.inactiveAfter = inactiveAfter;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${member.archive.interval:PT1H}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        long moved = archiveOlderThan(LocalDateTime.now().minus(inactiveAfter));
+        if (moved > 0) {
+            log.info("archived {} inactive members", moved);
+        }
+    }
+
+    public long archiveOlderThan(LocalDateTime before) {
+        long total = 0;
+        while (true) {
+            Integer moved = transactionTemplate.execute(status -> memberJpaRepository.archiveInactive(before, batchSize));
+            total += moved;
+            if (moved < batchSize) {
+                return total;
+            }
+        }
+    }
+}
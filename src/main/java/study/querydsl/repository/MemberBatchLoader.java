@@ -0,0 +1,73 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import org.springframework.web.context.annotation.RequestScope;
+import study.querydsl.entity.Member;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 요청 안에서 여러 곳이 각각 findById 하는 대신 id 를 모아뒀다가 한번에 조회한다 (DataLoader 방식)
+ * load() 로 future 를 받고, 같은 단계의 load() 가 끝나면 dispatch() 로 where id in (...) 한번에 채운다
+ * 이미 영속성 컨텍스트에 있는 회원은 쿼리하지 않고, 조회한 회원도 영속성 컨텍스트에 올라가므로 이후 em.find 는 쿼리가 나가지 않는다
+ * MemberJpaRepository.findById / loadById 가 요청 안에서 이 로더를 거치고, 남은 id 는 핸들러가 끝나면 MemberBatchDispatcher 가 dispatch 한다
+ * 조회가 끝난 id 는 들고 있지 않는다, 다시 load() 하면 영속성 컨텍스트에서 꺼내므로 em.clear() 나 삭제 이후에도 예전 결과를 돌려주지 않고
+ * 실패한 id 도 다시 조회한다
+ */
+@Component
+@RequestScope
+public class MemberBatchLoader {
+    private final EntityManager em;
+    //아직 조회하지 않은 id, 조회가 끝나면 (실패해도) 비운다
+    private final Map<Long, CompletableFuture<Optional<Member>>> pending = new LinkedHashMap<>();
+
+    public MemberBatchLoader(EntityManager em) {
+        this.em = em;
+    }
+
+    public synchronized CompletableFuture<Optional<Member>> load(Long id) {
+        Assert.notNull(id, "id must not be null");
+        return pending.computeIfAbsent(id, key -> new CompletableFuture<>());
+    }
+
+    public synchronized void dispatch() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(pending.keySet());
+        List<CompletableFuture<Optional<Member>>> futures = new ArrayList<>(pending.values());
+        pending.clear();
+        try {
+            //ids 순서대로, 없는 id 는 null
+            List<Member> members = em.unwrap(Session.class)
+                    .byMultipleIds(Member.class)
+                    .enableSessionCheck(true)
+                    .multiLoad(ids);
+            for (int i = 0; i < ids.size(); i++) {
+                futures.get(i).complete(Optional.ofNullable(members.get(i)));
+            }
+        } catch (RuntimeException e) {
+            futures.forEach(future -> future.completeExceptionally(e));
+            throw e;
+        }
+    }
+
+    public synchronized boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    //지금까지 모인 id 와 함께 바로 조회
+    public Optional<Member> get(Long id) {
+        CompletableFuture<Optional<Member>> member = load(id);
+        dispatch();
+        return member.join();
+    }
+}
@@ -0,0 +1,141 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.support.ReplaceVisitor;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.JPAQueryBase;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.JPQLTemplates;
+import com.querydsl.jpa.impl.JPAProvider;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.support.QueryDeadline;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * MemberFilterGuard 를 통과한 @QuerydslPredicate 조건으로 회원을 페이지 조회한다
+ * 조건의 값(상수)을 Param 으로 바꾼 모양 (어떤 경로에 어떤 연산자 + 정렬) 별로 JPQL 을 한번만 만들어 두고 요청마다 값만 바인딩한다
+ * 같은 모양이면 JPQL 문자열도 같아서 hibernate 쿼리 플랜 캐시도 그대로 재사용된다
+ */
+@Repository
+public class MemberFilterRepository {
+    private static final int MAX_SHAPES = 256;
+
+    private final EntityManager em;
+    private final JPQLTemplates templates;
+    private final Map<String, CompiledQuery> shapes = new ConcurrentHashMap<>();
+
+    public MemberFilterRepository(EntityManager em) {
+        this.em = em;
+        this.templates = JPAProvider.getTemplates(em);
+    }
+
+    public Page<MemberTeamDto> search(Predicate predicate, Pageable pageable) {
+        Parameterizer parameterizer = new Parameterizer();
+        Predicate shape = (Predicate) predicate.accept(parameterizer, null);
+        OrderSpecifier<?>[] orders = MemberSorts.toOrderSpecifiers(pageable.getSort());
+        String key = shape + " order by " + Arrays.toString(orders);
+
+        CompiledQuery compiled = shapes.get(key);
+        if (compiled == null) {
+            compiled = compile(shape, orders);
+            //정렬 조합이 많아도 캐시가 끝없이 커지지 않도록 상한을 둔다
+            if (shapes.size() < MAX_SHAPES) {
+                shapes.putIfAbsent(key, compiled);
+            }
+        }
+
+        Query contentQuery = compiled.content.create(parameterizer.values)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize());
+        List<MemberTeamDto> content = new ArrayList<>();
+        for (Object row : contentQuery.getResultList()) {
+            Object[] columns = (Object[]) row;
+            content.add(new MemberTeamDto((Long) columns[0], (String) columns[1], (Integer) columns[2],
+                    (Long) columns[3], (String) columns[4]));
+        }
+        //첫 페이지가 덜 찼으면 count 쿼리 생략
+        if (pageable.getOffset() == 0 && content.size() < pageable.getPageSize()) {
+            return new PageImpl<>(content, pageable, content.size());
+        }
+        long total = (Long) compiled.count.create(parameterizer.values).getSingleResult();
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    int cachedShapes() {
+        return shapes.size();
+    }
+
+    private CompiledQuery compile(Predicate shape, OrderSpecifier<?>[] orders) {
+        JPAQuery<?> content = new JPAQuery<Void>()
+                .select(member.id, member.username, member.age, team.id, team.name)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(shape)
+                .orderBy(orders);
+        JPAQuery<?> count = new JPAQuery<Void>()
+                .select(member.count())
+                .from(member)
+                .where(shape);
+        return new CompiledQuery(serialize(content), serialize(count));
+    }
+
+    private Jpql serialize(JPAQueryBase<?, ?> query) {
+        JPQLSerializer serializer = new JPQLSerializer(templates, em);
+        serializer.serialize(query.getMetadata(), false, null);
+        return new Jpql(serializer.toString(), List.copyOf(serializer.getConstants()));
+    }
+
+    @RequiredArgsConstructor
+    private static class CompiledQuery {
+        private final Jpql content;
+        private final Jpql count;
+    }
+
+    @RequiredArgsConstructor
+    private class Jpql {
+        private final String query;
+        private final List<Object> constants;
+
+        Query create(Map<ParamExpression<?>, Object> values) {
+            Query created = em.createQuery(query).setHint(HibernateHints.HINT_READ_ONLY, true);
+            JPAUtil.setConstants(created, constants, values);
+            return QueryDeadline.apply(created, em);
+        }
+    }
+
+    //상수를 등장 순서대로 p0, p1, ... Param 으로 바꾸고 값은 따로 모은다
+    private static class Parameterizer extends ReplaceVisitor<Void> {
+        private final Map<ParamExpression<?>, Object> values = new LinkedHashMap<>();
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Expression<?> visit(Constant<?> expr, Void context) {
+            Param<Object> param = new Param<>((Class<Object>) expr.getType(), "p" + values.size());
+            values.put(param, expr.getConstant());
+            return param;
+        }
+    }
+}
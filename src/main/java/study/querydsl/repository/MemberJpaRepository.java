@@ -1,12 +1,23 @@
 package study.querydsl.repository;
 
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.Tuple;
 import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.RequestContextHolder;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberDto;
@@ -14,9 +25,24 @@ import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.QTeam;
+import study.querydsl.entity.Team;
+import study.querydsl.event.MemberArchivedEvent;
+import study.querydsl.event.MemberRenamedEvent;
+import study.querydsl.event.MemberSavedEvent;
+import study.querydsl.event.MemberTeamChangedEvent;
+import study.querydsl.repository.support.DeadlineJPAQueryFactory;
+import study.querydsl.repository.support.InLists;
+import study.querydsl.repository.support.MemberLookups;
+import study.querydsl.repository.support.TableChangeInspector;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 import static study.querydsl.entity.QMember.*;
 import static study.querydsl.entity.QTeam.*;
@@ -27,20 +53,60 @@ public class MemberJpaRepository {
 
     private final JPAQueryFactory queryFactory;
 
-    public MemberJpaRepository(EntityManager em) {
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ObjectProvider<MemberBatchLoader> batchLoader;
+
+    public MemberJpaRepository(EntityManager em, ApplicationEventPublisher eventPublisher,
+                               ObjectProvider<MemberBatchLoader> batchLoader) {
         this.em = em;
-        this.queryFactory = new JPAQueryFactory(em);
+        this.queryFactory = new DeadlineJPAQueryFactory(em);
+        this.eventPublisher = eventPublisher;
+        this.batchLoader = batchLoader;
     }
 
     public void save(Member member) {
         em.persist(member);
+        eventPublisher.publishEvent(MemberSavedEvent.of(member));
     }
 
+    //요청 안에서는 MemberBatchLoader 를 거쳐서 지금까지 loadById 로 모인 id 와 같이 조회한다
     public Optional<Member> findById(Long id) {
+        if (inRequest()) {
+            return batchLoader.getObject().get(id);
+        }
         Member member = em.find(Member.class, id);
         return Optional.ofNullable(member);
     }
 
+    /**
+     * 바로 조회하지 않고 id 만 모아둔다, 요청 안의 다른 loadById 와 함께 where id in (...) 한번으로 채워진다
+     * 핸들러가 끝날 때, 또는 그 전에 findById 나 MemberBatchLoader.dispatch() 가 불리면 완료된다
+     * 요청 밖(배치, 비동기 스레드)에서는 바로 조회해서 완료된 future 를 돌려준다
+     */
+    public CompletableFuture<Optional<Member>> loadById(Long id) {
+        if (inRequest()) {
+            return batchLoader.getObject().load(id);
+        }
+        return CompletableFuture.completedFuture(findById(id));
+    }
+
+    private static boolean inRequest() {
+        return RequestContextHolder.getRequestAttributes() != null;
+    }
+
+    /**
+     * id 목록으로 조회, 결과 순서는 보장하지 않는다
+     * 목록이 크고 id 가 촘촘하면 범위 조회 한번으로, 아니면 InLists.MAX_CHUNK 개씩 나눠서 조회
+     */
+    public List<Member> findAllByIds(Collection<Long> ids) {
+        return MemberLookups.findAllByIds(queryFactory, ids);
+    }
+
+    public List<Member> findAllByUsernames(Collection<String> usernames) {
+        return MemberLookups.findAllByUsernames(queryFactory, usernames);
+    }
+
     public List<Member> findAll() {
         return em.createQuery("select m from Member m", Member.class).getResultList();
     }
@@ -48,9 +114,22 @@ public class MemberJpaRepository {
     public List<Member> findByUsername(String name) {
         return em.createQuery("select m from Member m where username=:name", Member.class).setParameter("name",name).getResultList();
     }
+
+    //트랜잭션 안에서 사용하고 반드시 close 해야함
+    public Stream<Tuple> streamIdAndUsernames() {
+        return queryFactory
+                .select(member.id, member.username)
+                .from(member)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, 1000)
+                .stream();
+    }
+
+    //목록 조회 결과는 수정하지 않으므로 스냅샷을 남기지 않는다
     public List<Member> findAll_query() {
         return queryFactory.
-                selectFrom(member).fetch();
+                selectFrom(member)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .fetch();
     }
 
     public List<Member> findByUsername_query(String name) {
@@ -59,6 +138,15 @@ public class MemberJpaRepository {
     }
 
     public List<MemberTeamDto> findByCond_query(MemberSearchCondition cond) {
+        return condQuery(cond).fetch();
+    }
+
+    //조회 건수를 limit 건으로 제한 (SearchAdmission 에서 capped 된 경우)
+    public List<MemberTeamDto> findByCond_query(MemberSearchCondition cond, long limit) {
+        return condQuery(cond).orderBy(member.id.asc()).limit(limit).fetch();
+    }
+
+    private JPAQuery<MemberTeamDto> condQuery(MemberSearchCondition cond) {
         BooleanBuilder booleanBuilder = new BooleanBuilder();
         if(StringUtils.hasText(cond.getUsername())){
             booleanBuilder.and(member.username.eq(cond.getUsername()));
@@ -81,8 +169,7 @@ public class MemberJpaRepository {
                         team.name.as("teamName")))
                 .from(member)
                 .leftJoin(member.team, team)
-                .where(booleanBuilder)
-                .fetch();
+                .where(booleanBuilder);
     }
 
     public List<MemberTeamDto> seach(MemberSearchCondition cond) {
@@ -100,17 +187,183 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
+    /**
+     * 조건에 맞는 회원의 username 을 한번에 변경
+     * 벌크 연산은 조인이 안되므로 대상 id 를 먼저 조회한 뒤 id 로 update 한다
+     * 영속성 컨텍스트는 갱신되지 않으므로 필요하면 호출하는 쪽에서 em.clear() 해야함
+     */
+    public long bulkRename(MemberSearchCondition cond, String username) {
+        em.flush();
+        List<Tuple> targets = queryFactory
+                .select(member.id, member.username)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(usernameEq(cond.getUsername()), teamNameEq(cond.getTeamName()), ageGoe(cond.getAgeGoe()), ageLoe(cond.getAgeLoe()))
+                .fetch();
+        if (targets.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = targets.stream().map(t -> t.get(member.id)).toList();
+        List<String> previousUsernames = targets.stream().map(t -> t.get(member.username)).toList();
+
+        //변경 내용은 MemberRenamedEvent 로 알린다
+        long count = TableChangeInspector.announced(() -> {
+            long updated = 0;
+            for (List<Long> chunk : InLists.chunks(ids, InLists.MAX_CHUNK)) {
+                updated += queryFactory
+                        .update(member)
+                        .set(member.username, username)
+                        .where(member.id.in(chunk))
+                        .execute();
+            }
+            return updated;
+        });
+        eventPublisher.publishEvent(new MemberRenamedEvent(ids, previousUsernames, username));
+        return count;
+    }
+
+    /**
+     * 회원 한명의 팀 변경 (teamId 가 null 이면 팀에서 뺀다)
+     * 팀은 프록시로만 참조하므로 팀과 팀의 members 컬렉션을 로딩하지 않는다
+     */
+    public void changeTeam(Long memberId, Long teamId) {
+        Member target = em.find(Member.class, memberId);
+        if (target == null) {
+            throw new EntityNotFoundException("member " + memberId);
+        }
+        String teamName = teamName(teamId);
+        target.changeTeam(teamId != null ? em.getReference(Team.class, teamId) : null);
+        eventPublisher.publishEvent(new MemberTeamChangedEvent(List.of(memberId), teamId, teamName));
+    }
+
+    /**
+     * 조건에 맞는 회원을 한번에 다른 팀으로 옮긴다 (teamId 가 null 이면 팀에서 뺀다)
+     * 영속성 컨텍스트에 올라와 있는 회원은 엔티티로 변경하고 (로딩된 members 컬렉션도 맞춰짐)
+     * 나머지는 로딩하지 않고 team_id 만 IN 목록 단위로 벌크 update 한다
+     * 벌크로 옮긴 회원은 대상 팀의 이미 로딩된 members 에 들어가지 않으므로, 그 경우 대상 팀을 refresh 해서 다시 읽게 한다
+     * 벌크 update 는 hibernate 가 Member 와 Team.members 2차 캐시 영역을 무효화한다
+     */
+    public long bulkChangeTeam(MemberSearchCondition cond, Long teamId) {
+        em.flush();
+        String teamName = teamName(teamId);
+        List<Long> ids = queryFactory
+                .select(member.id)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(usernameEq(cond.getUsername()), teamNameEq(cond.getTeamName()), ageGoe(cond.getAgeGoe()), ageLoe(cond.getAgeLoe()))
+                .fetch();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Team target = teamId != null ? em.getReference(Team.class, teamId) : null;
+
+        Map<Long, Member> managed = managedMembers(ids);
+        managed.values().forEach(m -> m.changeTeam(target));
+        List<Long> unmanaged = ids.stream().filter(id -> !managed.containsKey(id)).toList();
+        //변경 내용은 MemberTeamChangedEvent 로 알린다
+        TableChangeInspector.announced(() -> {
+            for (List<Long> chunk : InLists.chunks(unmanaged, InLists.MAX_CHUNK)) {
+                if (target != null) {
+                    queryFactory.update(member).set(member.team, target).where(member.id.in(chunk)).execute();
+                } else {
+                    queryFactory.update(member).setNull(member.team).where(member.id.in(chunk)).execute();
+                }
+            }
+            return null;
+        });
+        em.flush();
+        if (!unmanaged.isEmpty() && target != null
+                && Hibernate.isInitialized(target) && Hibernate.isInitialized(target.getMembers())) {
+            em.refresh(target);
+        }
+        eventPublisher.publishEvent(new MemberTeamChangedEvent(ids, teamId, teamName));
+        return ids.size();
+    }
+
+    /**
+     * lastActiveAt 이 before 보다 오래된 회원을 id 순으로 limit 명까지 member_archive 로 옮긴다
+     * insert ... select 와 delete 를 같은 id IN 목록으로 실행해서 두 테이블이 같은 회원 집합을 본다
+     * 영속성 컨텍스트에 올라와 있던 회원은 분리(detach)해서 이후 flush 때 다시 쓰지 않도록 한다
+     */
+    public int archiveInactive(LocalDateTime before, int limit) {
+        em.flush();
+        List<Tuple> targets = queryFactory
+                .select(member.id, member.username)
+                .from(member)
+                .where(member.lastActiveAt.lt(before))
+                .orderBy(member.id.asc())
+                .limit(limit)
+                .fetch();
+        if (targets.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = targets.stream().map(t -> t.get(member.id)).toList();
+        List<String> usernames = targets.stream().map(t -> t.get(member.username)).toList();
+
+        for (Member archived : managedMembers(ids).values()) {
+            Team owner = archived.getTeam();
+            if (owner != null && Hibernate.isInitialized(owner) && Hibernate.isInitialized(owner.getMembers())) {
+                owner.getMembers().remove(archived);
+            }
+            em.detach(archived);
+        }
+        //변경 내용은 MemberArchivedEvent 로 알린다
+        TableChangeInspector.announced(() -> {
+            for (List<Long> chunk : InLists.chunks(ids, InLists.MAX_CHUNK)) {
+                em.createQuery("insert into MemberArchive (id, username, age, teamId, lastActiveAt, archivedAt)" +
+                                " select m.id, m.username, m.age, m.team.id, m.lastActiveAt, local datetime" +
+                                " from Member m where m.id in :ids")
+                        .setParameter("ids", chunk)
+                        .executeUpdate();
+                queryFactory.delete(member).where(member.id.in(chunk)).execute();
+            }
+            return null;
+        });
+        eventPublisher.publishEvent(new MemberArchivedEvent(ids, usernames));
+        return ids.size();
+    }
+
+    //id 로 조회하지 않고 영속성 컨텍스트에 이미 있는 회원만 꺼낸다
+    private Map<Long, Member> managedMembers(List<Long> ids) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Member.class);
+        PersistenceContext context = session.getPersistenceContextInternal();
+        Map<Long, Member> managed = new HashMap<>();
+        for (Long id : ids) {
+            Object entity = context.getEntity(session.generateEntityKey(id, persister));
+            if (entity != null) {
+                managed.put(id, (Member) entity);
+            }
+        }
+        return managed;
+    }
+
+    private String teamName(Long teamId) {
+        if (teamId == null) {
+            return null;
+        }
+        Tuple found = queryFactory
+                .select(team.id, team.name)
+                .from(team)
+                .where(team.id.eq(teamId))
+                .fetchOne();
+        if (found == null) {
+            throw new EntityNotFoundException("team " + teamId);
+        }
+        return found.get(team.name);
+    }
+
     private BooleanExpression ageLoe(Integer ageLoe) {
 
         if (ageLoe != null) {
-            member.age.loe(ageLoe);
+            return member.age.loe(ageLoe);
         }
         return null;
     }
 
     private BooleanExpression ageGoe(Integer ageGoe) {
         if (ageGoe != null) {
-            member.age.goe(ageGoe);
+            return member.age.goe(ageGoe);
         }
         return null;
     }
@@ -2,12 +2,35 @@ package study.querydsl.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
+import org.springframework.data.querydsl.binding.QuerydslBinderCustomizer;
+import org.springframework.data.querydsl.binding.QuerydslBindings;
 import org.springframework.stereotype.Repository;
 import study.querydsl.entity.Member;
+import study.querydsl.entity.QMember;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface MemberRepository extends JpaRepository<Member, Long> ,MemberRepositoryCustom, QuerydslPredicateExecutor<Member> {
+public interface MemberRepository extends JpaRepository<Member, Long> ,MemberRepositoryCustom, QuerydslPredicateExecutor<Member>,
+        QuerydslBinderCustomizer<QMember> {
     List<Member> findByUsername(String username);
+
+    /**
+     * @QuerydslPredicate(root = Member.class) 바인딩
+     * 인덱스가 있는 경로만 받고, 연산자도 인덱스를 탈 수 있는 것만 만든다 (MemberFilterGuard 가 한번 더 검사)
+     * id, team.id: in / username: eq / age: 값 하나면 eq, 두개면 between
+     */
+    @Override
+    default void customize(QuerydslBindings bindings, QMember member) {
+        bindings.excludeUnlistedProperties(true);
+        bindings.including(member.id, member.username, member.age, member.team.id);
+        bindings.bind(member.id).all((path, values) -> Optional.of(path.in(values)));
+        bindings.bind(member.team.id).all((path, values) -> Optional.of(path.in(values)));
+        bindings.bind(member.username).first((path, value) -> path.eq(value));
+        bindings.bind(member.age).all((path, values) -> values.size() == 1
+                ? Optional.of(path.eq(values.iterator().next()))
+                : Optional.of(path.between(Collections.min(values), Collections.max(values))));
+    }
 }
@@ -2,13 +2,23 @@ package study.querydsl.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import study.querydsl.dto.MemberFacets;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface MemberRepositoryCustom{
     List<MemberTeamDto> search(MemberSearchCondition condition);
+    List<MemberTeamDto> search(MemberSearchCondition condition, boolean includeArchived);
     Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
     Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
+    MemberFacets facets(MemberSearchCondition condition);
+    boolean exists(MemberSearchCondition condition);
+    long countUpTo(MemberSearchCondition condition, int cap);
+    List<Member> findAllByIds(Collection<Long> ids);
+    List<Member> findAllByUsernames(Collection<String> usernames);
+    List<MemberTeamDto> findTopByAgePerTeam(int limit, boolean oldest);
 }
@@ -1,37 +1,79 @@
 package study.querydsl.repository;
 
 import com.querydsl.core.BooleanBuilder;
-import com.querydsl.core.QueryResults;
+import com.querydsl.core.Tuple;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.NumberExpression;
 import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAProvider;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUtil;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.support.QuerydslRepositorySupport;
 import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberFacets;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
+import study.querydsl.repository.support.DeadlineJPAQueryFactory;
+import study.querydsl.repository.support.MemberLookups;
+import study.querydsl.repository.support.QueryDeadline;
+import study.querydsl.repository.support.SingleFlight;
+import study.querydsl.repository.support.TableVersions;
+import study.querydsl.repository.support.TtlCache;
+import study.querydsl.search.MemberReadModel;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
 
 import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QMemberArchive.memberArchive;
 import static study.querydsl.entity.QTeam.team;
 
 public class MemberRepositoryImpl extends QuerydslRepositorySupport implements MemberRepositoryCustom {
+    private static final int AGE_BUCKET_SIZE = 10;
+
     private final JPAQueryFactory queryFactory;
+    private final MemberReadModel memberReadModel;
+    private final MemberSqlRepository memberSqlRepository;
+    private final TableVersions tableVersions;
+    private final int pageCountCap;
+    private final TtlCache<List<Object>, MemberFacets> facetCache;
+    //같이 받은 호출끼리 목록 변경이 섞이지 않도록 변경 불가능한 목록으로 나눠준다, Page 의 content 는 원래 변경 불가능
+    private final SingleFlight<List<Object>, List<MemberTeamDto>> searchFlights = new SingleFlight<>(List::copyOf);
+    private final SingleFlight<List<Object>, List<MemberTeamDto>> archivedSearchFlights = new SingleFlight<>(List::copyOf);
+    private final SingleFlight<List<Object>, Page<MemberTeamDto>> pageFlights = new SingleFlight<>();
 //    public MemberRepositoryImpl(EntityManager em) {
 //    }
 
 
-    public MemberRepositoryImpl(EntityManager em) {
+    public MemberRepositoryImpl(EntityManager em, MemberReadModel memberReadModel, MemberSqlRepository memberSqlRepository,
+                                TableVersions tableVersions, @Value("${member.facets.cache-ttl:PT0S}") Duration facetCacheTtl,
+                                @Value("${member.page.count-cap:10000}") int pageCountCap) {
         super(Member.class);
-        this.queryFactory = new JPAQueryFactory(em);
+        this.queryFactory = new DeadlineJPAQueryFactory(em);
+        this.memberReadModel = memberReadModel;
+        this.memberSqlRepository = memberSqlRepository;
+        this.tableVersions = tableVersions;
+        this.pageCountCap = pageCountCap;
+        this.facetCache = new TtlCache<>(facetCacheTtl, 1000);
     }
 
     public List<MemberTeamDto> findByCond_query(MemberSearchCondition cond) {
@@ -75,23 +117,70 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements M
 
     @Override
     public List<MemberTeamDto> search(MemberSearchCondition cond) {
+        //읽기 모델이 켜져 있고 최신이면 DB 를 거치지 않는다, 쓰기 트랜잭션은 자기 변경이 보여야 하므로 DB 로 간다
+        if (inWriteTransaction()) {
+            return fetchSearch(cond);
+        }
+        return memberReadModel.search(cond).orElseGet(() -> coalesce(searchFlights, searchKey(cond, null), () -> fetchSearch(cond)));
+    }
+
+    //includeArchived 가 true 면 member_archive 로 옮겨진 회원도 같이 찾는다
+    @Override
+    public List<MemberTeamDto> search(MemberSearchCondition cond, boolean includeArchived) {
+        if (!includeArchived) {
+            return search(cond);
+        }
+        return coalesce(archivedSearchFlights, searchKey(cond, null), () -> withArchived(fetchSearch(cond), cond));
+    }
 
-        return queryFactory.
+    private List<MemberTeamDto> fetchSearch(MemberSearchCondition cond) {
+        if (memberSqlRepository.enabled("search")) {
+            return memberSqlRepository.search(cond);
+        }
+        JPAQuery<MemberTeamDto> query = queryFactory.
                 select(new QMemberTeamDto(
                         member.id.as("memberId"),
                         member.username,
                         member.age,
                         team.id.as("teamId"),
                         team.name.as("teamName")))
-                .from(member)
-                .leftJoin(member.team, team)
+                .from(member);
+        return joinTeam(query, cond)
                 .where(usernameEq(cond.getUsername()), teamNameEq(cond.getTeamName()), ageGoe(cond.getAgeGoe()), ageLoe(cond.getAgeLoe()))
                 .fetch();
     }
 
+    /**
+     * hot 결과 뒤에 member_archive 결과를 붙인다
+     * hot 을 먼저 읽기 때문에 그 사이에 옮겨진 회원은 빠지지 않고 양쪽에 다 보일 수 있어서 id 로 중복을 제거한다
+     * 팀은 archive 쪽에 연관관계가 없으므로 team_id 로 조인한다
+     */
+    private List<MemberTeamDto> withArchived(List<MemberTeamDto> hot, MemberSearchCondition cond) {
+        List<MemberTeamDto> archived = queryFactory
+                .select(new QMemberTeamDto(
+                        memberArchive.id.as("memberId"),
+                        memberArchive.username,
+                        memberArchive.age,
+                        memberArchive.teamId,
+                        team.name.as("teamName")))
+                .from(memberArchive)
+                .leftJoin(team).on(team.id.eq(memberArchive.teamId))
+                .where(archivedUsernameEq(cond.getUsername()), teamNameEq(cond.getTeamName()),
+                        archivedAgeGoe(cond.getAgeGoe()), archivedAgeLoe(cond.getAgeLoe()))
+                .fetch();
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        Map<Long, MemberTeamDto> merged = new LinkedHashMap<>();
+        hot.forEach(dto -> merged.put(dto.getMemberId(), dto));
+        archived.forEach(dto -> merged.putIfAbsent(dto.getMemberId(), dto));
+        return new ArrayList<>(merged.values());
+    }
+
+    //total 은 pageCountCap 까지만 센다 (countUpTo)
     @Override
     public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition cond, Pageable pageable) {
-        QueryResults<MemberTeamDto> result = queryFactory.
+        List<MemberTeamDto> content = queryFactory.
                 select(new QMemberTeamDto(
                         member.id.as("memberId"),
                         member.username,
@@ -101,14 +190,13 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements M
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(usernameEq(cond.getUsername()), teamNameEq(cond.getTeamName()), ageGoe(cond.getAgeGoe()), ageLoe(cond.getAgeLoe()))
+                .orderBy(MemberSorts.toOrderSpecifiers(pageable.getSort()))
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
-                .fetchResults();
-        List<MemberTeamDto> content = result.getResults();
-        long total = result.getTotal();
-        return new PageImpl<>(content, pageable, total);
+                .fetch();
+        return PageableExecutionUtils.getPage(content, pageable, () -> countUpTo(cond, pageCountCap));
     }
-    //sort 되지 않음 from 으로 시작되는 구조..
+    //applyPagination 의 sort 는 DTO 조회에 적용되지 않으므로 정렬은 MemberSorts 로 직접 건다
     public Page<MemberTeamDto> searchPageSimple2(MemberSearchCondition cond, Pageable pageable) {
         JPQLQuery<MemberTeamDto> query = from(member)
                 .leftJoin(member.team, team)
@@ -119,22 +207,35 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements M
                         member.age,
                         team.id.as("teamId"),
                         team.name.as("teamName")));
-        JPQLQuery<MemberTeamDto> pagingQuery = getQuerydsl().applyPagination(pageable, query);
-        return new PageImpl<>( pagingQuery.fetch(), pageable, pagingQuery.fetchCount());
+        long total = query.fetchCount();
+        List<MemberTeamDto> content = query
+                .orderBy(MemberSorts.toOrderSpecifiers(pageable.getSort()))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+        return new PageImpl<>(content, pageable, total);
     }
 
     @Override
     public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition cond, Pageable pageable) {
-        List<MemberTeamDto> result = queryFactory.
+        return coalesce(pageFlights, searchKey(cond, pageable), () -> fetchPageComplex(cond, pageable));
+    }
+
+    private Page<MemberTeamDto> fetchPageComplex(MemberSearchCondition cond, Pageable pageable) {
+        if (memberSqlRepository.enabled("search-page-complex")) {
+            return memberSqlRepository.searchPage(cond, pageable);
+        }
+        JPAQuery<MemberTeamDto> content = queryFactory.
                 select(new QMemberTeamDto(
                         member.id.as("memberId"),
                         member.username,
                         member.age,
                         team.id.as("teamId"),
                         team.name.as("teamName")))
-                .from(member)
-                .leftJoin(member.team, team)
+                .from(member);
+        List<MemberTeamDto> result = joinTeam(content, cond)
                 .where(usernameEq(cond.getUsername()), teamNameEq(cond.getTeamName()), ageGoe(cond.getAgeGoe()), ageLoe(cond.getAgeLoe()))
+                .orderBy(MemberSorts.toOrderSpecifiers(pageable.getSort()))
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
                 .fetch();
@@ -145,25 +246,200 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements M
 //                .where(usernameEq(cond.getUsername()), teamNameEq(cond.getTeamName()), ageGoe(cond.getAgeGoe()), ageLoe(cond.getAgeLoe()))
 //                .fetchFirst();
 
-        JPAQuery<Member> count = queryFactory
-                .selectFrom(member)
-                .leftJoin(member.team, team)
-                .where(usernameEq(cond.getUsername()), teamNameEq(cond.getTeamName()), ageGoe(cond.getAgeGoe()), ageLoe(cond.getAgeLoe()));
-        return PageableExecutionUtils.getPage(result, pageable, count::fetchCount);
+        //total 은 pageCountCap 까지만 센다, 매칭 전체를 세지 않고 cap 개를 찾으면 멈춘다 (total == cap 이면 "cap+")
+        return PageableExecutionUtils.getPage(result, pageable, () -> countUpTo(cond, pageCountCap));
 //        return new PageImpl<>(result, pageable, total);
     }
 
+    //MemberLookups 참고
+    @Override
+    public List<Member> findAllByIds(Collection<Long> ids) {
+        return MemberLookups.findAllByIds(queryFactory, ids);
+    }
+
+    @Override
+    public List<Member> findAllByUsernames(Collection<String> usernames) {
+        return MemberLookups.findAllByUsernames(queryFactory, usernames);
+    }
+
+    /**
+     * 팀별 나이 상위(oldest) 또는 하위 limit 명
+     * 팀마다 쿼리하거나 상관 서브쿼리를 쓰지 않고 row_number() 윈도 함수로 member 를 한번만 읽는다
+     * JPQL 은 윈도 함수를 지원하지 않으므로 네이티브 SQL, 팀 순서 + 순위 순으로 반환 (팀 없는 회원은 제외)
+     */
+    @Override
+    public List<MemberTeamDto> findTopByAgePerTeam(int limit, boolean oldest) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        String direction = oldest ? "desc" : "asc";
+        String sql = "select r.member_id, r.username, r.age, r.team_id, t.name" +
+                " from (select m.member_id, m.username, m.age, m.team_id," +
+                "        row_number() over (partition by m.team_id order by m.age " + direction + ", m.member_id) as rn" +
+                "       from member m where m.team_id is not null) r" +
+                " join team t on t.member_id = r.team_id" +
+                " where r.rn <= :limit" +
+                " order by r.team_id, r.rn";
+        List<Object[]> rows = getEntityManager().createNativeQuery(sql)
+                .setParameter("limit", limit)
+                .getResultList();
+        List<MemberTeamDto> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(new MemberTeamDto(
+                    ((Number) row[0]).longValue(),
+                    (String) row[1],
+                    ((Number) row[2]).intValue(),
+                    ((Number) row[3]).longValue(),
+                    (String) row[4]));
+        }
+        return result;
+    }
+
+    /**
+     * 같은 조건의 검색이 동시에 몰리면 (대시보드 새로고침 등) 쿼리는 한번만 실행하고 결과를 같이 쓴다
+     * 쓰기 트랜잭션 안에서는 자기가 변경한 내용이 보여야 하므로 합치지 않는다
+     */
+    private <V> V coalesce(SingleFlight<List<Object>, V> flights, List<Object> key, Supplier<V> query) {
+        if (inWriteTransaction()) {
+            return query.get();
+        }
+        return flights.execute(key, query);
+    }
+
+    private static boolean inWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private static List<Object> searchKey(MemberSearchCondition cond, Pageable pageable) {
+        return Arrays.asList(
+                StringUtils.hasText(cond.getUsername()) ? cond.getUsername() : null,
+                StringUtils.hasText(cond.getTeamName()) ? cond.getTeamName() : null,
+                cond.getAgeGoe(),
+                cond.getAgeLoe(),
+                pageable);
+    }
+
+    /**
+     * 조건에 맞는 회원이 있는지만 본다, 첫 행을 찾으면 멈추므로 fetchCount 처럼 매칭 전체를 세지 않는다
+     */
+    @Override
+    public boolean exists(MemberSearchCondition cond) {
+        Integer found = matching(queryFactory.selectOne(), cond).fetchFirst();
+        return found != null;
+    }
+
+    /**
+     * 최대 cap 건까지만 센다, 결과가 cap 이면 화면에는 "cap+" 로 보여주면 된다
+     * select count(*) from (select member.id ... limit cap) 이라 DB 는 cap 건을 읽으면 멈춘다
+     * querydsl 은 from 절 서브쿼리를 만들지 못해서 안쪽 쿼리만 querydsl 로 만들고 HQL 로 감싼다 (hibernate 6)
+     */
+    @Override
+    public long countUpTo(MemberSearchCondition cond, int cap) {
+        if (cap <= 0) {
+            return 0;
+        }
+        JPAQuery<Long> ids = matching(queryFactory.select(member.id), cond);
+        EntityManager em = getEntityManager();
+        JPQLSerializer serializer = new JPQLSerializer(JPAProvider.getTemplates(em), em);
+        serializer.serialize(ids.getMetadata(), false, null);
+        Query query = em.createQuery("select count(*) from (" + serializer + " limit " + cap + ") capped");
+        JPAUtil.setConstants(query, serializer.getConstants(), ids.getMetadata().getParams());
+        return (Long) QueryDeadline.apply(query, em).getSingleResult();
+    }
+
+    //teamName 조건이 있으면 팀 없는 회원은 어차피 걸러지므로 inner join 으로 바꿔서 idx_team_name 에서 시작할 수 있게 한다
+    private <T> JPAQuery<T> joinTeam(JPAQuery<T> query, MemberSearchCondition cond) {
+        if (StringUtils.hasText(cond.getTeamName())) {
+            return query.join(member.team, team);
+        }
+        return query.leftJoin(member.team, team);
+    }
+
+    //존재/개수 확인용 조건, team 은 teamName 조건이 있을 때만 조인한다
+    private <T> JPAQuery<T> matching(JPAQuery<T> query, MemberSearchCondition cond) {
+        query.from(member);
+        if (StringUtils.hasText(cond.getTeamName())) {
+            query.join(member.team, team);
+        }
+        return query.where(usernameEq(cond.getUsername()), teamNameEq(cond.getTeamName()), ageGoe(cond.getAgeGoe()), ageLoe(cond.getAgeLoe()));
+    }
+
+    /**
+     * 팀별, 나이대별 카운트를 facet 값마다 count 쿼리를 날리지 않고 group by 쿼리 한방으로 구한다
+     * (팀 이름, 나이) 로 묶은 결과는 많아야 팀 수 x 나이 종류 수 이므로 나이대 버킷과 합계는 어플리케이션에서 계산
+     * 각 facet 은 자기 차원의 조건만 빼고 집계해야 하므로 teamName, 나이 조건은 where 가 아니라 여기서 적용한다
+     * 캐시는 member, team 테이블 버전이 바뀌면 키가 달라져서 ttl 전이라도 다시 집계한다
+     * 쓰기 트랜잭션 안에서는 자기가 바꾼 데이터가 보여야 하므로 캐시를 쓰지 않는다
+     */
+    @Override
+    public MemberFacets facets(MemberSearchCondition cond) {
+        if (inWriteTransaction()) {
+            return countFacets(cond);
+        }
+        return facetCache.get(facetKey(cond, tableVersions), () -> countFacets(cond));
+    }
+
+    //빈 문자열은 조건이 없는 것과 같이 취급한다 (usernameEq, teamNameEq 와 동일)
+    //대소문자는 구분한다, eq 비교가 대소문자를 구분하므로 다른 결과다
+    static List<Object> facetKey(MemberSearchCondition cond, TableVersions tableVersions) {
+        return Arrays.asList(
+                StringUtils.hasText(cond.getUsername()) ? cond.getUsername() : null,
+                StringUtils.hasText(cond.getTeamName()) ? cond.getTeamName() : null,
+                cond.getAgeGoe(),
+                cond.getAgeLoe(),
+                tableVersions.get(TableVersions.MEMBER),
+                tableVersions.get(TableVersions.TEAM));
+    }
+
+    private MemberFacets countFacets(MemberSearchCondition cond) {
+        NumberExpression<Long> memberCount = member.count();
+        List<Tuple> groups = queryFactory
+                .select(team.name, member.age, memberCount)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(usernameEq(cond.getUsername()))
+                .groupBy(team.name, member.age)
+                .fetch();
+
+        long total = 0;
+        Map<String, Long> teams = new TreeMap<>();
+        Map<Integer, Long> buckets = new TreeMap<>();
+        for (Tuple group : groups) {
+            String teamName = group.get(team.name);
+            int age = group.get(member.age);
+            long count = group.get(memberCount);
+
+            boolean ageMatch = (cond.getAgeGoe() == null || age >= cond.getAgeGoe())
+                    && (cond.getAgeLoe() == null || age <= cond.getAgeLoe());
+            boolean teamMatch = !StringUtils.hasText(cond.getTeamName()) || cond.getTeamName().equals(teamName);
+            if (ageMatch && teamName != null) {
+                teams.merge(teamName, count, Long::sum);
+            }
+            if (teamMatch) {
+                buckets.merge(Math.floorDiv(age, AGE_BUCKET_SIZE) * AGE_BUCKET_SIZE, count, Long::sum);
+            }
+            if (ageMatch && teamMatch) {
+                total += count;
+            }
+        }
+
+        Map<String, Long> ageBuckets = new LinkedHashMap<>();
+        buckets.forEach((from, count) -> ageBuckets.put(from + "-" + (from + AGE_BUCKET_SIZE - 1), count));
+        return new MemberFacets(total, teams, ageBuckets);
+    }
+
     private BooleanExpression ageLoe(Integer ageLoe) {
 
         if (ageLoe != null) {
-            member.age.loe(ageLoe);
+            return member.age.loe(ageLoe);
         }
         return null;
     }
 
     private BooleanExpression ageGoe(Integer ageGoe) {
         if (ageGoe != null) {
-            member.age.goe(ageGoe);
+            return member.age.goe(ageGoe);
         }
         return null;
     }
@@ -183,4 +459,25 @@ public class MemberRepositoryImpl extends QuerydslRepositorySupport implements M
         return null;
     }
 
+    private BooleanExpression archivedUsernameEq(String username) {
+        if (StringUtils.hasText(username)) {
+            return memberArchive.username.eq(username);
+        }
+        return null;
+    }
+
+    private BooleanExpression archivedAgeGoe(Integer ageGoe) {
+        if (ageGoe != null) {
+            return memberArchive.age.goe(ageGoe);
+        }
+        return null;
+    }
+
+    private BooleanExpression archivedAgeLoe(Integer ageLoe) {
+        if (ageLoe != null) {
+            return memberArchive.age.loe(ageLoe);
+        }
+        return null;
+    }
+
 }
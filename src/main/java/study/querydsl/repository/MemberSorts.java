@@ -0,0 +1,132 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.Order;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import org.springframework.data.domain.Sort;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.repository.sql.SMember.sMember;
+
+/**
+ * Pageable 의 Sort 를 member 경로의 OrderSpecifier 로 바꾼다
+ * DTO 로 조회하는 쿼리는 Querydsl.applyPagination 의 sort 가 엔티티 alias 기준이라 적용되지 않으므로 직접 변환
+ * 인덱스가 있는 컬럼(PK, idx_member_username, idx_member_age)만 허용해서 인덱스 없는 컬럼 정렬(filesort)을 막고
+ * 마지막에 member.id 를 붙여 같은 값이 있어도 페이지 경계가 매번 같도록 한다
+ */
+public final class MemberSorts {
+    private static final Map<String, ComparableExpressionBase<?>> SORTABLE = Map.of(
+            "memberId", member.id,
+            "id", member.id,
+            "username", member.username,
+            "age", member.age);
+    //querydsl-sql 경로 (MemberSqlRepository) 용, 키는 SORTABLE 과 같다
+    private static final Map<String, ComparableExpressionBase<?>> SQL_SORTABLE = Map.of(
+            "memberId", sMember.memberId,
+            "id", sMember.memberId,
+            "username", sMember.username,
+            "age", sMember.age);
+    //샤드별 결과를 합칠 때 (ShardedMemberRepository) 쓰는 메모리 정렬 키, 키는 SORTABLE 과 같다
+    private static final Function<MemberTeamDto, Comparable<?>> DTO_ID = MemberTeamDto::getMemberId;
+    private static final Map<String, Function<MemberTeamDto, Comparable<?>>> DTO_SORTABLE = Map.of(
+            "memberId", DTO_ID,
+            "id", DTO_ID,
+            "username", MemberTeamDto::getUsername,
+            "age", MemberTeamDto::getAge);
+
+    private MemberSorts() {
+    }
+
+    public static OrderSpecifier<?>[] toOrderSpecifiers(Sort sort) {
+        return toOrderSpecifiers(sort, SORTABLE, member.id);
+    }
+
+    public static OrderSpecifier<?>[] toSqlOrderSpecifiers(Sort sort) {
+        return toOrderSpecifiers(sort, SQL_SORTABLE, sMember.memberId);
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static OrderSpecifier<?>[] toOrderSpecifiers(Sort sort, Map<String, ComparableExpressionBase<?>> sortable,
+                                                         ComparableExpressionBase<?> id) {
+        List<OrderSpecifier<?>> orders = new ArrayList<>();
+        boolean unique = false;
+        Order last = Order.ASC;
+        for (Sort.Order order : sort) {
+            ComparableExpressionBase<?> path = sortable.get(order.getProperty());
+            if (path == null) {
+                throw new UnsupportedSortException(order.getProperty());
+            }
+            last = order.isAscending() ? Order.ASC : Order.DESC;
+            OrderSpecifier<?> specifier = new OrderSpecifier(last, path);
+            if (order.getNullHandling() == Sort.NullHandling.NULLS_FIRST) {
+                specifier = specifier.nullsFirst();
+            } else if (order.getNullHandling() == Sort.NullHandling.NULLS_LAST) {
+                specifier = specifier.nullsLast();
+            }
+            orders.add(specifier);
+            if (path == id) {
+                unique = true;
+                break;
+            }
+        }
+        //마지막 정렬과 같은 방향이어야 (age, member_id) 순서 그대로 인덱스를 읽을 수 있다
+        if (!unique) {
+            orders.add(new OrderSpecifier(last, id));
+        }
+        return orders.toArray(new OrderSpecifier[0]);
+    }
+
+    /**
+     * toSqlOrderSpecifiers 와 같은 순서의 Comparator (member_id tie-breaker 포함)
+     * null 은 H2 기본값과 같이 가장 작은 값으로 본다 (asc 면 앞, desc 면 뒤)
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public static Comparator<MemberTeamDto> toComparator(Sort sort) {
+        Comparator<MemberTeamDto> comparator = null;
+        boolean unique = false;
+        boolean ascending = true;
+        for (Sort.Order order : sort) {
+            Function<MemberTeamDto, Comparable<?>> key = DTO_SORTABLE.get(order.getProperty());
+            if (key == null) {
+                throw new UnsupportedSortException(order.getProperty());
+            }
+            ascending = order.isAscending();
+            Comparator<MemberTeamDto> next = Comparator.comparing((Function) key, values(order));
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+            if (key == DTO_ID) {
+                unique = true;
+                break;
+            }
+        }
+        if (!unique) {
+            Comparator<MemberTeamDto> byId = Comparator.comparing(MemberTeamDto::getMemberId);
+            byId = ascending ? byId : byId.reversed();
+            comparator = comparator == null ? byId : comparator.thenComparing(byId);
+        }
+        return comparator;
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static Comparator<Comparable> values(Sort.Order order) {
+        Comparator<Comparable> natural = order.isAscending() ? Comparator.naturalOrder() : Comparator.reverseOrder();
+        return switch (order.getNullHandling()) {
+            case NULLS_FIRST -> Comparator.nullsFirst(natural);
+            case NULLS_LAST -> Comparator.nullsLast(natural);
+            default -> order.isAscending() ? Comparator.nullsFirst(natural) : Comparator.nullsLast(natural);
+        };
+    }
+
+    //컨트롤러에서는 SearchExceptionHandler 가 400 으로 바꾼다
+    public static class UnsupportedSortException extends IllegalArgumentException {
+        public UnsupportedSortException(String property) {
+            super("sort by '" + property + "' is not supported, use one of " + SORTABLE.keySet());
+        }
+    }
+}
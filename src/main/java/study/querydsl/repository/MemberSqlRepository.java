@@ -0,0 +1,103 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.sql.SQLQuery;
+import com.querydsl.sql.SQLQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+
+import java.util.List;
+
+import static study.querydsl.repository.sql.SMember.sMember;
+import static study.querydsl.repository.sql.STeam.sTeam;
+
+/**
+ * MemberRepositoryCustom 조회 메서드의 querydsl-sql 구현
+ * JPQL 변환, 엔티티/영속성 컨텍스트를 거치지 않고 JDBC 결과를 바로 MemberTeamDto 로 만든다
+ * member.sql-fast-path.{메서드명}=true 로 메서드마다 켠다 (MemberRepositoryImpl 에서 확인)
+ * 영속성 컨텍스트를 flush 하지 않으므로 같은 트랜잭션에서 flush 전 변경은 보이지 않는다
+ */
+@Repository
+@RequiredArgsConstructor
+public class MemberSqlRepository {
+    private final SQLQueryFactory queryFactory;
+    private final Environment environment;
+
+    public boolean enabled(String method) {
+        return environment.getProperty("member.sql-fast-path." + method, Boolean.class, false);
+    }
+
+    public List<MemberTeamDto> search(MemberSearchCondition cond) {
+        return contentQuery(cond).fetch();
+    }
+
+    public Page<MemberTeamDto> searchPage(MemberSearchCondition cond, Pageable pageable) {
+        List<MemberTeamDto> content = contentQuery(cond)
+                .orderBy(MemberSorts.toSqlOrderSpecifiers(pageable.getSort()))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        SQLQuery<Long> count = joinTeam(queryFactory
+                .select(sMember.memberId.count())
+                .from(sMember), cond)
+                .where(usernameEq(cond.getUsername()), teamNameEq(cond.getTeamName()), ageGoe(cond.getAgeGoe()), ageLoe(cond.getAgeLoe()));
+        return PageableExecutionUtils.getPage(content, pageable, count::fetchOne);
+    }
+
+    private SQLQuery<MemberTeamDto> contentQuery(MemberSearchCondition cond) {
+        return joinTeam(queryFactory
+                .select(new QMemberTeamDto(
+                        sMember.memberId,
+                        sMember.username,
+                        sMember.age,
+                        sTeam.memberId,
+                        sTeam.name))
+                .from(sMember), cond)
+                .where(usernameEq(cond.getUsername()), teamNameEq(cond.getTeamName()), ageGoe(cond.getAgeGoe()), ageLoe(cond.getAgeLoe()));
+    }
+
+    //teamName 조건이 있으면 팀 없는 회원은 어차피 걸러지므로 inner join 으로 idx_team_name 에서 시작할 수 있게 한다 (MemberRepositoryImpl.joinTeam 과 같음)
+    private <T> SQLQuery<T> joinTeam(SQLQuery<T> query, MemberSearchCondition cond) {
+        if (StringUtils.hasText(cond.getTeamName())) {
+            return query.innerJoin(sTeam).on(sTeam.memberId.eq(sMember.teamId));
+        }
+        return query.leftJoin(sTeam).on(sTeam.memberId.eq(sMember.teamId));
+    }
+
+    private BooleanExpression usernameEq(String username) {
+        if (StringUtils.hasText(username)) {
+            return sMember.username.eq(username);
+        }
+        return null;
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        if (StringUtils.hasText(teamName)) {
+            return sTeam.name.eq(teamName);
+        }
+        return null;
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        if (ageGoe != null) {
+            return sMember.age.goe(ageGoe);
+        }
+        return null;
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        if (ageLoe != null) {
+            return sMember.age.loe(ageLoe);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,69 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 검색 비용 추정에 쓰는 member / team 통계, 주기적으로 다시 읽는다
+ */
+@Component
+public class MemberTableStats {
+    private final JPAQueryFactory queryFactory;
+    private volatile Snapshot snapshot;
+
+    public MemberTableStats(EntityManager em) {
+        this.queryFactory = new JPAQueryFactory(em);
+    }
+
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            refresh();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    @Scheduled(fixedDelayString = "${member.admission.stats-refresh-interval:PT1M}")
+    @Transactional(readOnly = true)
+    public void refresh() {
+        NumberExpression<Long> rows = member.count();
+        NumberExpression<Long> distinctUsernames = member.username.countDistinct();
+        NumberExpression<Integer> minAge = member.age.min();
+        NumberExpression<Integer> maxAge = member.age.max();
+        Tuple members = queryFactory
+                .select(rows, distinctUsernames, minAge, maxAge)
+                .from(member)
+                .fetchOne();
+        Long teams = queryFactory
+                .select(team.count())
+                .from(team)
+                .fetchOne();
+        snapshot = new Snapshot(
+                members.get(rows),
+                members.get(distinctUsernames),
+                teams,
+                members.get(minAge) != null ? members.get(minAge) : 0,
+                members.get(maxAge) != null ? members.get(maxAge) : 0);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Snapshot {
+        private final long rows;
+        private final long distinctUsernames;
+        private final long teams;
+        private final int minAge;
+        private final int maxAge;
+    }
+}
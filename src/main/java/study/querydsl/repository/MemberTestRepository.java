@@ -19,23 +19,28 @@ import static study.querydsl.entity.QTeam.team;
 
 @Repository
 public class MemberTestRepository extends MyQuerydslRepositorySupport {
-    public MemberTestRepository(Class<?> domainClass) {
+    public MemberTestRepository() {
         super(Member.class);
     }
 
     public List<Member> basicSelect() {
-        return select(member)
-                .from(member)
+        return readOnly(select(member)
+                .from(member))
                 .fetch();
     }
 
     public List<Member> basicSelectFrom() {
-        return selectFrom(member)
+        return readOnly(selectFrom(member))
                 .fetch();
     }
 
+    public List<Member> basicSelectStateless() {
+        return fetchStateless(query -> query
+                .selectFrom(member));
+    }
+
     public Page<Member> searchPage(MemberSearchCondition cond, Pageable pageable) {
-        JPAQuery<Member> query = selectFrom(member)
+        JPAQuery<Member> query = readOnly(selectFrom(member))
                 .leftJoin(member.team, team)
                 .where(usernameEq(cond.getUsername()), teamNameEq(cond.getTeamName()), ageGoe(cond.getAgeGoe()), ageLoe(cond.getAgeLoe()));
         List<Member> content = getQuerydsl().applyPagination(pageable, query).fetch();
@@ -75,14 +80,14 @@ public class MemberTestRepository extends MyQuerydslRepositorySupport {
     private BooleanExpression ageLoe(Integer ageLoe) {
 
         if (ageLoe != null) {
-            member.age.loe(ageLoe);
+            return member.age.loe(ageLoe);
         }
         return null;
     }
 
     private BooleanExpression ageGoe(Integer ageGoe) {
         if (ageGoe != null) {
-            member.age.goe(ageGoe);
+            return member.age.goe(ageGoe);
         }
         return null;
     }
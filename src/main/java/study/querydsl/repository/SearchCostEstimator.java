@@ -0,0 +1,70 @@
+package study.querydsl.repository;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberSearchCondition;
+
+/**
+ * 검색 조건의 선택도와 테이블 통계로 읽을 행 수 / 돌려줄 행 수를 추정한다
+ * username(idx_member_username), age(idx_member_age) 조건은 member 인덱스로 일치하는 행만 읽는다고 보고,
+ * member 쪽 조건이 없으면 전체 스캔으로 본다
+ * teamName 은 join 한 team 의 조건이라 읽는 member 행은 줄이지 않고 돌려줄 행만 줄이는 join scan 으로 본다
+ * (team.name 에도 idx_team_name 이 있지만 통계가 팀 수뿐이라 회원이 몰린 큰 팀을 과소평가하지 않도록 보수적으로 잡는다)
+ */
+@Component
+@RequiredArgsConstructor
+public class SearchCostEstimator {
+    //돌려주는 행은 조회 외에 DTO 변환, 직렬화 비용이 더 든다
+    private static final int RETURNED_ROW_WEIGHT = 5;
+
+    private final MemberTableStats tableStats;
+
+    public SearchCost estimate(MemberSearchCondition cond, Pageable pageable) {
+        MemberTableStats.Snapshot stats = tableStats.current();
+        double selectivity = 1.0;
+        double joinSelectivity = 1.0;
+        boolean indexed = false;
+        if (StringUtils.hasText(cond.getUsername())) {
+            selectivity *= 1.0 / Math.max(1, stats.getDistinctUsernames());
+            indexed = true;
+        }
+        if (StringUtils.hasText(cond.getTeamName())) {
+            joinSelectivity = 1.0 / Math.max(1, stats.getTeams());
+        }
+        if (cond.getAgeGoe() != null || cond.getAgeLoe() != null) {
+            int from = cond.getAgeGoe() != null ? Math.max(cond.getAgeGoe(), stats.getMinAge()) : stats.getMinAge();
+            int to = cond.getAgeLoe() != null ? Math.min(cond.getAgeLoe(), stats.getMaxAge()) : stats.getMaxAge();
+            double span = stats.getMaxAge() - stats.getMinAge() + 1.0;
+            selectivity *= Math.max(0, to - from + 1) / span;
+            indexed = true;
+        }
+
+        long scanned = indexed ? (long) Math.ceil(stats.getRows() * selectivity) : stats.getRows();
+        long matched = (long) Math.ceil(scanned * joinSelectivity);
+        boolean paged = pageable != null && pageable.isPaged();
+        long returned = paged ? Math.min(matched, pageable.getPageSize()) : matched;
+        //페이징은 count 쿼리가 한번 더 읽는다
+        long cost = scanned * (paged ? 2 : 1) + returned * RETURNED_ROW_WEIGHT;
+        return new SearchCost(matched, scanned, returned, cost);
+    }
+
+    @Getter
+    @ToString
+    @RequiredArgsConstructor
+    public static class SearchCost {
+        private final long matchedRows;
+        private final long scannedRows;
+        private final long returnedRows;
+        private final long cost;
+
+        //최대 rows 건만 돌려주도록 limit 를 걸었을 때의 비용
+        public SearchCost limitTo(long rows) {
+            long limited = Math.min(returnedRows, rows);
+            return new SearchCost(matchedRows, scannedRows, limited, cost - (returnedRows - limited) * RETURNED_ROW_WEIGHT);
+        }
+    }
+}
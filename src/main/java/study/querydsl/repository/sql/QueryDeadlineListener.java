@@ -0,0 +1,33 @@
+package study.querydsl.repository.sql;
+
+import com.querydsl.sql.SQLBaseListener;
+import com.querydsl.sql.SQLListenerContext;
+import study.querydsl.repository.support.QueryDeadline;
+
+import java.sql.SQLException;
+
+/**
+ * JPA 경로의 QueryDeadline.apply 와 같은 역할, 실행 직전의 statement 에 남은 시간을 걸고
+ * 실행이 끝나면 취소 대상에서 뺀다
+ */
+class QueryDeadlineListener extends SQLBaseListener {
+
+    @Override
+    public void preExecute(SQLListenerContext context) {
+        if (context.getPreparedStatement() == null) {
+            return;
+        }
+        try {
+            QueryDeadline.apply(context.getPreparedStatement());
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void end(SQLListenerContext context) {
+        if (context.getPreparedStatement() != null) {
+            QueryDeadline.release(context.getPreparedStatement());
+        }
+    }
+}
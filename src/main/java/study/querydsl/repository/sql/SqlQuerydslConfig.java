@@ -0,0 +1,52 @@
+package study.querydsl.repository.sql;
+
+import com.querydsl.sql.H2Templates;
+import com.querydsl.sql.SQLExceptionTranslator;
+import com.querydsl.sql.SQLQueryFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
+import org.springframework.jdbc.support.SQLExceptionSubclassTranslator;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+
+@Configuration
+public class SqlQuerydslConfig {
+
+    /**
+     * JPA 트랜잭션이 있으면 같은 커넥션을 쓰도록 TransactionAwareDataSourceProxy 로 감싼다
+     * (쿼리가 끝나면 close 하지만 트랜잭션에 묶인 커넥션은 반납되지 않는다)
+     */
+    @Bean
+    public SQLQueryFactory sqlQueryFactory(DataSource dataSource) {
+        return newSqlQueryFactory(dataSource);
+    }
+
+    //샤드 데이터소스에도 같은 설정을 쓴다 (MemberShards)
+    public static SQLQueryFactory newSqlQueryFactory(DataSource dataSource) {
+        com.querydsl.sql.Configuration configuration = new com.querydsl.sql.Configuration(new H2Templates());
+        configuration.setExceptionTranslator(new SpringSQLExceptionTranslator());
+        configuration.addListener(new QueryDeadlineListener());
+        return new SQLQueryFactory(configuration, new TransactionAwareDataSourceProxy(dataSource));
+    }
+
+    //JPA 경로와 같이 DataAccessException 계열로 변환 (timeout -> QueryTimeoutException)
+    static class SpringSQLExceptionTranslator implements SQLExceptionTranslator {
+        private final SQLExceptionSubclassTranslator translator = new SQLExceptionSubclassTranslator();
+
+        @Override
+        public RuntimeException translate(String sql, List<Object> bindings, SQLException e) {
+            DataAccessException translated = translator.translate("querydsl-sql", sql, e);
+            return translated != null ? translated : new UncategorizedSQLException("querydsl-sql", sql, e);
+        }
+
+        @Override
+        public RuntimeException translate(SQLException e) {
+            return translate(null, null, e);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package study.querydsl.repository.support;
+
+/**
+ * Querydsl / JPQL 벌크 update, delete 가 실행되기 직전에 TableChangeInspector 가 호출한다
+ * 영속성 컨텍스트를 거치지 않는 변경이라 Hibernate 엔티티 이벤트로는 알 수 없는 경우를 받기 위한 것
+ */
+public interface BulkChangeListener {
+    void bulkChanged(String table, String sql);
+}
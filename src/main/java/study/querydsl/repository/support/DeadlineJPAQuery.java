@@ -0,0 +1,38 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.QueryModifiers;
+import com.querydsl.jpa.JPQLTemplates;
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+
+/**
+ * fetch / fetchCount / stream 등으로 jakarta Query 를 만드는 시점에 QueryDeadline 의 남은 시간을 건다
+ * 쿼리를 미리 만들어 두었다가 나중에 실행해도 실행 시점 기준으로 마감이 적용된다
+ */
+public class DeadlineJPAQuery<T> extends JPAQuery<T> {
+    private final EntityManager entityManager;
+
+    public DeadlineJPAQuery(EntityManager entityManager) {
+        super(entityManager);
+        this.entityManager = entityManager;
+    }
+
+    private DeadlineJPAQuery(EntityManager entityManager, JPQLTemplates templates, QueryMetadata metadata) {
+        super(entityManager, templates, metadata);
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    protected Query createQuery(QueryModifiers modifiers, boolean forCount) {
+        return QueryDeadline.apply(super.createQuery(modifiers, forCount), entityManager);
+    }
+
+    @Override
+    public DeadlineJPAQuery<T> clone(EntityManager entityManager, JPQLTemplates templates) {
+        DeadlineJPAQuery<T> query = new DeadlineJPAQuery<>(entityManager, templates, getMetadata().clone());
+        query.clone(this);
+        return query;
+    }
+}
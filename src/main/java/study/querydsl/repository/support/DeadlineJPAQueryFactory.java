@@ -0,0 +1,23 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+
+/**
+ * select / selectFrom / from 으로 만드는 모든 쿼리에 QueryDeadline 을 적용하는 JPAQueryFactory
+ * 마감은 쿼리를 만들 때가 아니라 실행할 때 적용된다 (DeadlineJPAQuery)
+ */
+public class DeadlineJPAQueryFactory extends JPAQueryFactory {
+    private final EntityManager entityManager;
+
+    public DeadlineJPAQueryFactory(EntityManager entityManager) {
+        super(entityManager);
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public JPAQuery<?> query() {
+        return new DeadlineJPAQuery<Void>(entityManager);
+    }
+}
@@ -0,0 +1,75 @@
+package study.querydsl.repository.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 큰 IN 목록 조회 도우미
+ * 중복을 제거하고 MAX_CHUNK 개씩 나눠서 조회한다
+ * 각 묶음의 파라미터 개수는 hibernate.query.in_clause_parameter_padding 으로 2의 거듭제곱까지 채워지므로
+ * IN 크기별로 쿼리 플랜이 따로 쌓이지 않는다 (1 ~ 1024 사이 11개)
+ */
+public final class InLists {
+    public static final int MAX_CHUNK = 1024;
+
+    private InLists() {
+    }
+
+    public static <T, R> List<R> fetchInChunks(Collection<T> values, Function<List<T>, List<R>> query) {
+        List<R> result = new ArrayList<>();
+        for (List<T> chunk : chunks(values, MAX_CHUNK)) {
+            result.addAll(query.apply(chunk));
+        }
+        return result;
+    }
+
+    public static <T> List<List<T>> chunks(Collection<T> values, int size) {
+        List<T> distinct = new ArrayList<>(new LinkedHashSet<>(values));
+        distinct.remove(null);
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += size) {
+            chunks.add(distinct.subList(from, Math.min(from + size, distinct.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * id 가 MAX_CHUNK 개보다 많고 [min, max] 범위에서 빠진 id 가 MAX_CHUNK 개 이하면
+     * IN 을 여러번 나눠 보내는 대신 범위 조건에 빠진 id 만 not in 으로 제외하는 쿼리 한번으로 읽을 수 있다
+     * 그런 경우 {min, max} 를, 아니면 null 을 반환
+     */
+    public static long[] denseRange(Collection<Long> ids) {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        int count = 0;
+        for (Long id : new LinkedHashSet<>(ids)) {
+            if (id == null) {
+                continue;
+            }
+            min = Math.min(min, id);
+            max = Math.max(max, id);
+            count++;
+        }
+        if (count <= MAX_CHUNK || max - min + 1 - count > MAX_CHUNK) {
+            return null;
+        }
+        return new long[]{min, max};
+    }
+
+    //[min, max] 범위에서 ids 에 없는 값
+    public static List<Long> gaps(Collection<Long> ids, long min, long max) {
+        Set<Long> present = new HashSet<>(ids);
+        List<Long> gaps = new ArrayList<>();
+        for (long id = min; id <= max; id++) {
+            if (!present.contains(id)) {
+                gaps.add(id);
+            }
+        }
+        return gaps;
+    }
+}
@@ -0,0 +1,44 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import study.querydsl.entity.Member;
+
+import java.util.Collection;
+import java.util.List;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * id / username 목록으로 회원을 읽는다 (MemberJpaRepository, MemberRepositoryImpl 공용), 결과 순서는 보장하지 않는다
+ */
+public final class MemberLookups {
+
+    private MemberLookups() {
+    }
+
+    /**
+     * 목록이 크고 id 가 촘촘하면 between min and max and id not in (빠진 id) 한번으로, 아니면 InLists.MAX_CHUNK 개씩 나눠서 조회
+     * 어느 쪽이든 DB 에서 요청한 id 만 걸러오므로 요청하지 않은 회원이 영속성 컨텍스트에 올라오지 않는다
+     */
+    public static List<Member> findAllByIds(JPAQueryFactory queryFactory, Collection<Long> ids) {
+        long[] range = InLists.denseRange(ids);
+        if (range != null) {
+            List<Long> gaps = InLists.gaps(ids, range[0], range[1]);
+            return queryFactory
+                    .selectFrom(member)
+                    .where(member.id.between(range[0], range[1]), gaps.isEmpty() ? null : member.id.notIn(gaps))
+                    .fetch();
+        }
+        return InLists.fetchInChunks(ids, chunk -> queryFactory
+                .selectFrom(member)
+                .where(member.id.in(chunk))
+                .fetch());
+    }
+
+    public static List<Member> findAllByUsernames(JPAQueryFactory queryFactory, Collection<String> usernames) {
+        return InLists.fetchInChunks(usernames, chunk -> queryFactory
+                .selectFrom(member)
+                .where(member.username.in(chunk))
+                .fetch());
+    }
+}
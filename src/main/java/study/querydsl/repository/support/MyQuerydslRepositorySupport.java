@@ -4,10 +4,16 @@ import com.mysema.commons.lang.Assert;
 import com.querydsl.core.types.EntityPath;
 import com.querydsl.core.types.Expression;
 import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.hibernate.HibernateQueryFactory;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -17,6 +23,7 @@ import org.springframework.data.jpa.repository.support.Querydsl;
 import org.springframework.data.querydsl.SimpleEntityPathResolver;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 import java.util.function.Function;
@@ -41,7 +48,7 @@ public abstract class MyQuerydslRepositorySupport {
         this.entityManager = entityManager;
         this.querydsl = new Querydsl(entityManager, new
                 PathBuilder<>(path.getType(), path.getMetadata()));
-        this.queryFactory = new JPAQueryFactory(entityManager);
+        this.queryFactory = new DeadlineJPAQueryFactory(entityManager);
     }
     @PostConstruct
     public void validate() {
@@ -64,6 +71,31 @@ public abstract class MyQuerydslRepositorySupport {
     protected <T> JPAQuery<T> selectFrom(EntityPath<T> from) {
         return getQueryFactory().selectFrom(from);
     }
+    /**
+     * 수정하지 않을 엔티티 조회용, org.hibernate.readOnly 힌트로 스냅샷을 남기지 않아 flush 때 dirty checking 대상에서 빠진다
+     * 읽기 전용 트랜잭션이면 이 쿼리 전의 auto flush 를 하지 않는다
+     * (세션의 FlushMode.MANUAL 은 readOnly 트랜잭션 시작 시 HibernateJpaDialect 가 이미 걸어준다)
+     */
+    protected <T> JPAQuery<T> readOnly(JPAQuery<T> query) {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            query.setFlushMode(FlushModeType.COMMIT);
+        }
+        return query.setHint(HibernateHints.HINT_READ_ONLY, true);
+    }
+
+    /**
+     * 대량 목록 조회용 StatelessSession 경로 (opt-in)
+     * 현재 트랜잭션의 커넥션을 그대로 쓰고 영속성 컨텍스트가 없으므로 결과는 준영속, 지연 로딩 연관관계는 초기화할 수 없다
+     */
+    protected <T> List<T> fetchStateless(Function<HibernateQueryFactory, JPQLQuery<T>> query) {
+        Session session = entityManager.unwrap(Session.class);
+        return session.doReturningWork(connection -> {
+            try (StatelessSession stateless = session.getSessionFactory().openStatelessSession(connection)) {
+                return query.apply(new HibernateQueryFactory(stateless)).fetch();
+            }
+        });
+    }
+
     protected <T> Page<T> applyPagination(Pageable pageable,
                                           Function<JPAQueryFactory, JPAQuery> contentQuery) {
         JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
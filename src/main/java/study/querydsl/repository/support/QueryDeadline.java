@@ -0,0 +1,159 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.QueryTimeoutException;
+import org.hibernate.Session;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 요청 단위의 쿼리 마감 시각
+ * call() 로 실행되는 동안 만들어지는 쿼리에는 남은 시간이 jakarta.persistence.query.timeout 으로 걸리고 (JDBC setQueryTimeout)
+ * cancel() 하면 마지막으로 쿼리를 만든 세션과 실행 중인 JDBC statement 들을 취소한다 (마감 초과, 비동기 요청 오류)
+ * fork() 로 만든 하위 마감은 따로 취소할 수 있고, 부모를 취소하면 하위 마감의 statement 도 같이 취소된다
+ */
+public class QueryDeadline {
+    public static final String TIMEOUT_HINT = "jakarta.persistence.query.timeout";
+    private static final ThreadLocal<QueryDeadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+    private final boolean bounded;
+    private final QueryDeadline parent;
+    private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+    private volatile Session session;
+    private volatile boolean cancelled;
+
+    public QueryDeadline(Duration timeout) {
+        this(System.nanoTime() + timeout.toNanos(), true, null);
+    }
+
+    private QueryDeadline(long deadlineNanos, boolean bounded, QueryDeadline parent) {
+        this.deadlineNanos = deadlineNanos;
+        this.bounded = bounded;
+        this.parent = parent;
+    }
+
+    /**
+     * 현재 스레드의 마감 시각을 물려받는 하위 마감 (샤드 병렬 조회 등 다른 스레드에서 call() 로 실행할 작업용)
+     * 현재 스레드에 마감이 없으면 시간 제한 없이 취소만 할 수 있는 마감을 만든다
+     */
+    public static QueryDeadline fork() {
+        QueryDeadline parent = CURRENT.get();
+        if (parent == null) {
+            return new QueryDeadline(0, false, null);
+        }
+        return new QueryDeadline(parent.deadlineNanos, parent.bounded, parent);
+    }
+
+    public <T> T call(Callable<T> work) throws Exception {
+        QueryDeadline previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return work.call();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public long remainingMillis() {
+        if (!bounded) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, (deadlineNanos - System.nanoTime()) / 1_000_000);
+    }
+
+    //현재 스레드 마감까지 남은 시간, 마감이 없으면 Long.MAX_VALUE (SingleFlight 대기용)
+    static long currentRemainingMillis() {
+        QueryDeadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return Long.MAX_VALUE;
+        }
+        return deadline.isCancelled() ? 0 : deadline.remainingMillis();
+    }
+
+    public boolean isCancelled() {
+        return cancelled || parent != null && parent.isCancelled();
+    }
+
+    public void cancel() {
+        cancelled = true;
+        Session current = session;
+        if (current != null && current.isOpen()) {
+            current.cancelQuery();
+        }
+        for (Statement running : statements) {
+            try {
+                running.cancel();
+            } catch (SQLException ignored) {
+                //이미 끝나서 닫힌 statement
+            }
+        }
+    }
+
+    /**
+     * 현재 스레드에 마감 시각이 있으면 남은 시간을 쿼리 timeout 힌트로 건다
+     * 남은 시간은 지금 기준이므로 실행 직전에 만든 Query 에 건다 (DeadlineJPAQuery, MemberFilterRepository)
+     */
+    public static Query apply(Query query, EntityManager em) {
+        Integer timeout = sessionTimeout(em);
+        return timeout == null ? query : query.setHint(TIMEOUT_HINT, timeout);
+    }
+
+    /**
+     * querydsl-sql 경로용, 세션이 없으므로 JDBC statement 에 직접 timeout 을 걸고 끝날 때(release) 까지 cancel() 대상으로 기억한다
+     */
+    public static void apply(Statement statement) throws SQLException {
+        QueryDeadline deadline = active();
+        if (deadline == null) {
+            return;
+        }
+        for (QueryDeadline target = deadline; target != null; target = target.parent) {
+            target.statements.add(statement);
+        }
+        if (deadline.bounded) {
+            statement.setQueryTimeout((int) Math.min(Integer.MAX_VALUE, (deadline.remainingMillis() + 999) / 1000));
+        }
+    }
+
+    public static void release(Statement statement) {
+        for (QueryDeadline target = CURRENT.get(); target != null; target = target.parent) {
+            target.statements.remove(statement);
+        }
+    }
+
+    //JPA 경로 공통, 세션을 cancel() 대상으로 기억하고 쿼리에 걸 timeout(ms) 을 반환한다 (걸 필요가 없으면 null)
+    private static Integer sessionTimeout(EntityManager em) {
+        QueryDeadline deadline = active();
+        if (deadline == null) {
+            return null;
+        }
+        deadline.session = em.unwrap(Session.class);
+        if (!deadline.bounded) {
+            return null;
+        }
+        //0 은 timeout 없음이므로 최소 1ms
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, deadline.remainingMillis()));
+    }
+
+    //현재 스레드의 마감, 이미 지났거나 취소됐으면 쿼리를 시작하지 않는다
+    private static QueryDeadline active() {
+        QueryDeadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return null;
+        }
+        if (deadline.isCancelled() || deadline.remainingMillis() == 0) {
+            throw new QueryTimeoutException("query deadline exceeded");
+        }
+        return deadline;
+    }
+}
@@ -0,0 +1,86 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.QueryTimeoutException;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * 같은 key 로 동시에 들어온 호출은 먼저 들어온 호출의 실행 결과를 같이 받는다
+ * 실행이 끝나면 바로 지우므로 캐시처럼 오래된 값을 돌려주지 않는다
+ * 기다리는 호출은 자기 QueryDeadline 까지만 기다리고, 먼저 들어온 호출이 자기 마감 때문에 취소되면
+ * 그 실패를 나눠 받지 않고 기다리던 호출 중 하나가 다시 실행한다
+ * 모든 호출이 같은 결과 객체를 받으므로 결과가 변경 가능하면 share 로 변경 불가능하게 만들어서 넘긴다 (List::copyOf 등)
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final UnaryOperator<V> share;
+
+    //결과가 이미 변경 불가능한 경우 (Page 등)
+    public SingleFlight() {
+        this(UnaryOperator.identity());
+    }
+
+    public SingleFlight(UnaryOperator<V> share) {
+        this.share = share;
+    }
+
+    public V execute(K key, Supplier<V> supplier) {
+        while (true) {
+            CompletableFuture<V> call = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+            if (existing == null) {
+                return lead(key, call, supplier);
+            }
+            try {
+                return await(existing);
+            } catch (CancellationException e) {
+                //먼저 실행하던 호출이 취소됨, 다시 자리를 잡는다
+            }
+        }
+    }
+
+    //기다리는 호출이 다시 자리를 잡을 수 있도록 결과를 알리기 전에 key 를 먼저 지운다
+    private V lead(K key, CompletableFuture<V> call, Supplier<V> supplier) {
+        try {
+            V value = share.apply(supplier.get());
+            inFlight.remove(key, call);
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, call);
+            if (QueryDeadline.currentRemainingMillis() == 0) {
+                call.cancel(false);
+            } else {
+                call.completeExceptionally(e);
+            }
+            throw e;
+        }
+    }
+
+    private V await(CompletableFuture<V> call) {
+        try {
+            return call.get(QueryDeadline.currentRemainingMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new QueryTimeoutException("query deadline exceeded");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueryTimeoutException("interrupted while waiting for query");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
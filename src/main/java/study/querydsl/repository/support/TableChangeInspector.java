@@ -0,0 +1,70 @@
+package study.querydsl.repository.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hibernate 가 실행하는 모든 insert / update / delete 의 대상 테이블을 TableVersions 에 알린다
+ * persist, 변경 감지, Querydsl 벌크 연산, 네이티브 쿼리가 모두 여기를 지나간다
+ * 그중 벌크 update / delete 는 BulkChangeListener 에도 알린다
+ * (HQL 을 번역한 SQL 은 대상 테이블에 별칭을 붙이고 엔티티 flush SQL 은 붙이지 않는 것으로 구분한다, 별칭 없는 네이티브 SQL 은 벌크로 보지 않는다)
+ */
+public class TableChangeInspector implements StatementInspector {
+    private static final Pattern DML = Pattern.compile(
+            "^\\s*(?:/\\*.*?\\*/\\s*)*(?:insert\\s+into|update|delete\\s+from|merge\\s+into)\\s+(?:\\w+\\.)?(\\w+)",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern BULK = Pattern.compile(
+            "^\\s*(?:/\\*.*?\\*/\\s*)*(?:update\\s+(?:\\w+\\.)?(\\w+)\\s+(?!set\\b)\\w+\\s+set\\b|delete\\s+from\\s+(?:\\w+\\.)?(\\w+)\\s+(?!where\\b)\\w+)",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final ThreadLocal<Boolean> ANNOUNCED = new ThreadLocal<>();
+
+    private final TableVersions tableVersions;
+    private final List<BulkChangeListener> bulkChangeListeners;
+
+    public TableChangeInspector(TableVersions tableVersions) {
+        this(tableVersions, List.of());
+    }
+
+    public TableChangeInspector(TableVersions tableVersions, List<BulkChangeListener> bulkChangeListeners) {
+        this.tableVersions = tableVersions;
+        this.bulkChangeListeners = bulkChangeListeners;
+    }
+
+    /**
+     * 변경 내용을 도메인 이벤트로 따로 알리는 벌크 연산은 이 안에서 실행해서 BulkChangeListener 에 중복으로 알리지 않는다
+     * TableVersions 는 그대로 올린다
+     */
+    public static <T> T announced(Supplier<T> work) {
+        Boolean previous = ANNOUNCED.get();
+        ANNOUNCED.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                ANNOUNCED.remove();
+            }
+        }
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Matcher matcher = DML.matcher(sql);
+        if (!matcher.find()) {
+            return sql;
+        }
+        tableVersions.changed(matcher.group(1).toLowerCase(Locale.ROOT));
+        if (ANNOUNCED.get() == null && !bulkChangeListeners.isEmpty()) {
+            Matcher bulk = BULK.matcher(sql);
+            if (bulk.find()) {
+                String table = (bulk.group(1) != null ? bulk.group(1) : bulk.group(2)).toLowerCase(Locale.ROOT);
+                bulkChangeListeners.forEach(listener -> listener.bulkChanged(table, sql));
+            }
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,21 @@
+package study.querydsl.repository.support;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+import java.util.List;
+
+@Configuration
+public class TableVersionConfig {
+
+    //BulkChangeListener (OutboxWriter 등) 는 EntityManager 를 쓰므로 EntityManagerFactory 생성 시점에는 lazy 프록시로 넘긴다
+    @Bean
+    public HibernatePropertiesCustomizer tableChangeInspector(TableVersions tableVersions,
+                                                             @Lazy List<BulkChangeListener> bulkChangeListeners) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR,
+                new TableChangeInspector(tableVersions, bulkChangeListeners));
+    }
+}
@@ -0,0 +1,57 @@
+package study.querydsl.repository.support;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * member, team 테이블의 변경 버전 (단조 증가)
+ * 트랜잭션 안의 변경은 커밋된 뒤에 올려야 새 버전으로 옛날 데이터를 읽는 일이 없다
+ * 재시작해도 이전 버전과 겹치지 않도록 기동 시각(ms)부터 시작한다
+ * 프로세스 안의 카운터이므로 여러 인스턴스가 같은 DB 를 쓰면 다른 인스턴스의 변경은 알 수 없다
+ */
+@Component
+public class TableVersions {
+    public static final String MEMBER = "member";
+    public static final String TEAM = "team";
+
+    private final Map<String, AtomicLong> versions;
+
+    public TableVersions() {
+        long epoch = System.currentTimeMillis();
+        this.versions = Map.of(MEMBER, new AtomicLong(epoch), TEAM, new AtomicLong(epoch));
+    }
+
+    public long get(String table) {
+        return versions.get(table).get();
+    }
+
+    public void changed(String table) {
+        AtomicLong version = versions.get(table);
+        if (version == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            version.incrementAndGet();
+            return;
+        }
+        //트랜잭션당 테이블별로 한번만 등록
+        String key = TableVersions.class.getName() + "." + table;
+        if (TransactionSynchronizationManager.hasResource(key)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(key, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(key);
+                if (status == STATUS_COMMITTED) {
+                    version.incrementAndGet();
+                }
+            }
+        });
+    }
+}
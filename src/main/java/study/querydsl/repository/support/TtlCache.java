@@ -0,0 +1,48 @@
+package study.querydsl.repository.support;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * ttl 동안만 값을 재사용하는 단순 캐시, ttl 이 0 이면 캐시하지 않는다
+ * maxSize 를 넘으면 전부 비운다
+ */
+public class TtlCache<K, V> {
+    private final long ttlNanos;
+    private final int maxSize;
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    public TtlCache(Duration ttl, int maxSize) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxSize = maxSize;
+    }
+
+    public V get(K key, Supplier<V> loader) {
+        if (ttlNanos <= 0) {
+            return loader.get();
+        }
+        long now = System.nanoTime();
+        Entry<V> entry = entries.get(key);
+        if (entry != null && now - entry.createdAt < ttlNanos) {
+            return entry.value;
+        }
+        V value = loader.get();
+        if (entries.size() >= maxSize) {
+            entries.clear();
+        }
+        entries.put(key, new Entry<>(value, now));
+        return value;
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long createdAt;
+
+        Entry(V value, long createdAt) {
+            this.value = value;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package study.querydsl.search;
+
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MemberTeamDto 를 컬럼 단위의 primitive 배열로 들고 있는 스냅샷
+ * username, teamName 은 사전(dictionary) 코드로 저장하고 행은 memberId 순으로 정렬되어 있다
+ * 동기화는 하지 않으므로 MemberReadModel 에서 lock 을 잡고 사용한다
+ */
+class MemberColumns {
+    private static final int NULL_CODE = -1;
+    private static final long NO_TEAM = Long.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] memberIds = new long[INITIAL_CAPACITY];
+    private int[] ages = new int[INITIAL_CAPACITY];
+    private int[] usernameCodes = new int[INITIAL_CAPACITY];
+    private long[] teamIds = new long[INITIAL_CAPACITY];
+    private int[] teamNameCodes = new int[INITIAL_CAPACITY];
+    private int size;
+
+    private final Dictionary usernames = new Dictionary();
+    private final Dictionary teamNames = new Dictionary();
+
+    int size() {
+        return size;
+    }
+
+    void upsert(long memberId, String username, int age, Long teamId, String teamName) {
+        int row = Arrays.binarySearch(memberIds, 0, size, memberId);
+        if (row < 0) {
+            row = insertAt(-row - 1);
+            memberIds[row] = memberId;
+        }
+        ages[row] = age;
+        usernameCodes[row] = usernames.encode(username);
+        teamIds[row] = teamId != null ? teamId : NO_TEAM;
+        teamNameCodes[row] = teamId != null ? teamNames.encode(teamName) : NULL_CODE;
+    }
+
+    boolean rename(long memberId, String username) {
+        int row = Arrays.binarySearch(memberIds, 0, size, memberId);
+        if (row < 0) {
+            return false;
+        }
+        usernameCodes[row] = usernames.encode(username);
+        return true;
+    }
+
+    boolean changeTeam(long memberId, Long teamId, String teamName) {
+        int row = Arrays.binarySearch(memberIds, 0, size, memberId);
+        if (row < 0) {
+            return false;
+        }
+        teamIds[row] = teamId != null ? teamId : NO_TEAM;
+        teamNameCodes[row] = teamId != null ? teamNames.encode(teamName) : NULL_CODE;
+        return true;
+    }
+
+    boolean remove(long memberId) {
+        int row = Arrays.binarySearch(memberIds, 0, size, memberId);
+        if (row < 0) {
+            return false;
+        }
+        int moved = size - row - 1;
+        System.arraycopy(memberIds, row + 1, memberIds, row, moved);
+        System.arraycopy(ages, row + 1, ages, row, moved);
+        System.arraycopy(usernameCodes, row + 1, usernameCodes, row, moved);
+        System.arraycopy(teamIds, row + 1, teamIds, row, moved);
+        System.arraycopy(teamNameCodes, row + 1, teamNameCodes, row, moved);
+        size--;
+        return true;
+    }
+
+    List<MemberTeamDto> search(MemberSearchCondition cond) {
+        boolean anyUsername = !StringUtils.hasText(cond.getUsername());
+        boolean anyTeamName = !StringUtils.hasText(cond.getTeamName());
+        int usernameCode = anyUsername ? NULL_CODE : usernames.find(cond.getUsername());
+        int teamNameCode = anyTeamName ? NULL_CODE : teamNames.find(cond.getTeamName());
+        if ((!anyUsername && usernameCode == NULL_CODE) || (!anyTeamName && teamNameCode == NULL_CODE)) {
+            return new ArrayList<>();
+        }
+        int ageGoe = cond.getAgeGoe() != null ? cond.getAgeGoe() : Integer.MIN_VALUE;
+        int ageLoe = cond.getAgeLoe() != null ? cond.getAgeLoe() : Integer.MAX_VALUE;
+
+        //분기 없이 일치하는 행 번호만 앞으로 모은다
+        int[] hits = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            boolean match = (anyUsername | usernameCodes[i] == usernameCode)
+                    & (anyTeamName | teamNameCodes[i] == teamNameCode)
+                    & ages[i] >= ageGoe
+                    & ages[i] <= ageLoe;
+            hits[count] = i;
+            count += match ? 1 : 0;
+        }
+
+        List<MemberTeamDto> result = new ArrayList<>(count);
+        for (int h = 0; h < count; h++) {
+            int i = hits[h];
+            result.add(new MemberTeamDto(
+                    memberIds[i],
+                    usernames.decode(usernameCodes[i]),
+                    ages[i],
+                    teamIds[i] != NO_TEAM ? teamIds[i] : null,
+                    teamNames.decode(teamNameCodes[i])));
+        }
+        return result;
+    }
+
+    //배열 5개(행당 28byte) + 사전 문자열의 대략적인 크기
+    long estimatedBytes() {
+        long columns = (long) memberIds.length * (Long.BYTES * 2 + Integer.BYTES * 3);
+        return columns + usernames.estimatedBytes() + teamNames.estimatedBytes();
+    }
+
+    private int insertAt(int row) {
+        if (size == memberIds.length) {
+            int capacity = size * 2;
+            memberIds = Arrays.copyOf(memberIds, capacity);
+            ages = Arrays.copyOf(ages, capacity);
+            usernameCodes = Arrays.copyOf(usernameCodes, capacity);
+            teamIds = Arrays.copyOf(teamIds, capacity);
+            teamNameCodes = Arrays.copyOf(teamNameCodes, capacity);
+        }
+        if (row < size) {
+            int moved = size - row;
+            System.arraycopy(memberIds, row, memberIds, row + 1, moved);
+            System.arraycopy(ages, row, ages, row + 1, moved);
+            System.arraycopy(usernameCodes, row, usernameCodes, row + 1, moved);
+            System.arraycopy(teamIds, row, teamIds, row + 1, moved);
+            System.arraycopy(teamNameCodes, row, teamNameCodes, row + 1, moved);
+        }
+        size++;
+        return row;
+    }
+
+    private static class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private long chars;
+
+        int encode(String value) {
+            if (value == null) {
+                return NULL_CODE;
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+                chars += value.length();
+            }
+            return code;
+        }
+
+        int find(String value) {
+            Integer code = codes.get(value);
+            return code != null ? code : NULL_CODE;
+        }
+
+        String decode(int code) {
+            return code == NULL_CODE ? null : values.get(code);
+        }
+
+        //문자열 + 맵 엔트리 오버헤드를 엔트리당 100byte 정도로 잡는다
+        long estimatedBytes() {
+            return chars * 2 + values.size() * 100L;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package study.querydsl.search;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.event.MemberArchivedEvent;
+import study.querydsl.event.MemberRenamedEvent;
+import study.querydsl.event.MemberSavedEvent;
+import study.querydsl.event.MemberTeamChangedEvent;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * member.read-model.enabled=true 일 때만 동작하는 메모리 읽기 모델
+ * refresh-interval 마다 전체를 다시 읽고, 그 사이에는 MemberJpaRepository 의 저장/벌크 변경 이벤트로 갱신한다
+ * 이벤트가 없는 변경(Spring Data save, 변경 감지)은 다음 전체 갱신까지 반영되지 않으므로
+ * 마지막 전체 갱신이 max-staleness 보다 오래됐거나 max-bytes 를 넘으면 DB 로 조회하도록 empty 를 반환한다
+ */
+@Slf4j
+@Component
+public class MemberReadModel {
+    private static final int BUDGET_CHECK_INTERVAL = 1024;
+
+    private final JPAQueryFactory queryFactory;
+    private final boolean enabled;
+    private final long maxBytes;
+    private final long maxStalenessNanos;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private MemberColumns columns;
+    private long refreshedAt;
+
+    public MemberReadModel(EntityManager em,
+                           @Value("${member.read-model.enabled:false}") boolean enabled,
+                           @Value("${member.read-model.max-bytes:67108864}") long maxBytes,
+                           @Value("${member.read-model.max-staleness:PT1M}") Duration maxStaleness) {
+        this.queryFactory = new JPAQueryFactory(em);
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+        this.maxStalenessNanos = maxStaleness.toNanos();
+    }
+
+    public Optional<List<MemberTeamDto>> search(MemberSearchCondition cond) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            if (columns == null || System.nanoTime() - refreshedAt > maxStalenessNanos) {
+                return Optional.empty();
+            }
+            return Optional.of(columns.search(cond));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${member.read-model.refresh-interval:PT30S}")
+    @Transactional(readOnly = true)
+    public void reload() {
+        if (!enabled) {
+            return;
+        }
+        long startedAt = System.nanoTime();
+        MemberColumns loaded = new MemberColumns();
+        try (Stream<Tuple> rows = queryFactory
+                .select(member.id, member.username, member.age, team.id, team.name)
+                .from(member)
+                .leftJoin(member.team, team)
+                .orderBy(member.id.asc())
+                .stream()) {
+            Iterator<Tuple> it = rows.iterator();
+            while (it.hasNext()) {
+                Tuple row = it.next();
+                loaded.upsert(row.get(member.id), row.get(member.username), row.get(member.age),
+                        row.get(team.id), row.get(team.name));
+                if (loaded.size() % BUDGET_CHECK_INTERVAL == 0 && loaded.estimatedBytes() > maxBytes) {
+                    log.warn("member read model exceeds {} bytes at {} rows, falling back to database", maxBytes, loaded.size());
+                    replace(null, startedAt);
+                    return;
+                }
+            }
+        }
+        replace(loaded.estimatedBytes() > maxBytes ? null : loaded, startedAt);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaved(MemberSavedEvent event) {
+        update(snapshot -> snapshot.upsert(event.getMemberId(), event.getUsername(), event.getAge(),
+                event.getTeamId(), event.getTeamName()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRenamed(MemberRenamedEvent event) {
+        update(snapshot -> event.getMemberIds().forEach(id -> snapshot.rename(id, event.getUsername())));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTeamChanged(MemberTeamChangedEvent event) {
+        update(snapshot -> event.getMemberIds().forEach(id -> snapshot.changeTeam(id, event.getTeamId(), event.getTeamName())));
+    }
+
+    //읽기 모델은 hot(member) 만 들고 있으므로 archive 로 옮겨진 회원은 뺀다
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArchived(MemberArchivedEvent event) {
+        update(snapshot -> event.getMemberIds().forEach(snapshot::remove));
+    }
+
+    private void update(Consumer<MemberColumns> change) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (columns == null) {
+                return;
+            }
+            change.accept(columns);
+            if (columns.estimatedBytes() > maxBytes) {
+                log.warn("member read model exceeds {} bytes, falling back to database", maxBytes);
+                columns = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void replace(MemberColumns loaded, long startedAt) {
+        lock.writeLock().lock();
+        try {
+            columns = loaded;
+            refreshedAt = startedAt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
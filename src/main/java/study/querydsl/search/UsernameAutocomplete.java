@@ -0,0 +1,125 @@
+package study.querydsl.search;
+
+import com.querydsl.core.Tuple;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import study.querydsl.event.MemberArchivedEvent;
+import study.querydsl.event.MemberRenamedEvent;
+import study.querydsl.event.MemberSavedEvent;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 키 입력마다 like 'x%' 쿼리를 보내지 않도록 메모리의 trie 에서 username 자동완성을 처리한다
+ * 기동 시 (id, username) 을 스트리밍으로 읽어 만들고, 이후에는 저장/벌크 변경 이벤트로 갱신한다
+ * 회원 id 별로 지금 반영된 username 을 들고 있어서 같은 변경을 두번 적용해도 결과가 같다
+ * 다시 읽는 동안 들어온 변경은 모아 두었다가 새 trie 에 재적용한 뒤 교체한다, 스캔이 이미 본 변경이어도 중복 반영되지 않는다
+ */
+@Component
+@RequiredArgsConstructor
+public class UsernameAutocomplete {
+    public static final int MAX_LIMIT = 50;
+
+    private final MemberJpaRepository memberJpaRepository;
+    private final Object loadLock = new Object();
+    private final Object changeLock = new Object();
+    private volatile Index index = new Index();
+    //load 중일 때만 null 이 아니다, changeLock 으로 보호
+    private List<Consumer<Index>> pending;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        synchronized (loadLock) {
+            synchronized (changeLock) {
+                pending = new ArrayList<>();
+            }
+            Index loaded = new Index();
+            try {
+                try (Stream<Tuple> members = memberJpaRepository.streamIdAndUsernames()) {
+                    members.forEach(t -> loaded.put(t.get(member.id), t.get(member.username)));
+                }
+                synchronized (changeLock) {
+                    pending.forEach(change -> change.accept(loaded));
+                    index = loaded;
+                }
+            } finally {
+                synchronized (changeLock) {
+                    pending = null;
+                }
+            }
+        }
+    }
+
+    public List<String> suggest(String prefix, int limit) {
+        return index.trie.suggest(prefix, Math.min(limit, MAX_LIMIT));
+    }
+
+    //커밋된 변경만 반영, 트랜잭션 밖에서 저장한 경우도 반영
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaved(MemberSavedEvent event) {
+        apply(current -> current.put(event.getMemberId(), event.getUsername()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRenamed(MemberRenamedEvent event) {
+        apply(current -> event.getMemberIds().forEach(id -> current.put(id, event.getUsername())));
+    }
+
+    //자동완성은 활동 중인 회원 이름만 제안한다
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArchived(MemberArchivedEvent event) {
+        apply(current -> event.getMemberIds().forEach(current::remove));
+    }
+
+    private void apply(Consumer<Index> change) {
+        synchronized (changeLock) {
+            change.accept(index);
+            if (pending != null) {
+                pending.add(change);
+            }
+        }
+    }
+
+    //trie 의 이름별 회원 수가 회원 id -> username 과 항상 맞도록 둘을 같이 바꾼다
+    private static class Index {
+        private final UsernameTrie trie = new UsernameTrie(MAX_LIMIT);
+        private final Map<Long, String> usernames = new HashMap<>();
+
+        void put(Long memberId, String username) {
+            if (memberId == null) {
+                return;
+            }
+            String previous = username != null ? usernames.put(memberId, username) : usernames.remove(memberId);
+            if (Objects.equals(previous, username)) {
+                return;
+            }
+            if (previous != null) {
+                trie.remove(previous);
+            }
+            if (username != null) {
+                trie.add(username);
+            }
+        }
+
+        void remove(Long memberId) {
+            String previous = usernames.remove(memberId);
+            if (previous != null) {
+                trie.remove(previous);
+            }
+        }
+    }
+}
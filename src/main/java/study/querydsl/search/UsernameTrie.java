@@ -0,0 +1,161 @@
+package study.querydsl.search;
+
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * username 자동완성용 trie
+ * 자식 노드는 정렬된 char 배열 + 노드 배열로 들고 있어서 노드당 Map 을 만들지 않는다
+ * 접두사 노드마다 상위 maxTopK 개의 결과를 캐시하고, 변경이 생기면 경로상의 캐시만 버린다
+ * 순위는 같은 이름을 가진 회원 수가 많은 순, 같으면 이름 순
+ */
+public class UsernameTrie {
+    private static final Comparator<Node> BY_RANK = Comparator
+            .comparingInt((Node node) -> node.count).reversed()
+            .thenComparing(node -> node.word, String.CASE_INSENSITIVE_ORDER);
+
+    private final Node root = new Node();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final int maxTopK;
+
+    public UsernameTrie(int maxTopK) {
+        this.maxTopK = maxTopK;
+    }
+
+    public void add(String username) {
+        change(username, 1);
+    }
+
+    public void remove(String username) {
+        change(username, -1);
+    }
+
+    public List<String> suggest(String prefix, int limit) {
+        if (!StringUtils.hasText(prefix) || limit <= 0) {
+            return List.of();
+        }
+        String key = normalize(prefix);
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+            List<String> top = node.top;
+            if (top == null) {
+                top = collectTop(node);
+                node.top = top;
+            }
+            return top.subList(0, Math.min(limit, top.size()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void change(String username, int delta) {
+        if (!StringUtils.hasText(username)) {
+            return;
+        }
+        String key = normalize(username);
+        lock.writeLock().lock();
+        try {
+            Node node = root;
+            node.top = null;
+            for (int i = 0; i < key.length(); i++) {
+                node = delta > 0 ? node.childOrCreate(key.charAt(i)) : node.child(key.charAt(i));
+                if (node == null) {
+                    return;
+                }
+                node.top = null;
+            }
+            node.count = Math.max(0, node.count + delta);
+            if (node.count == 0) {
+                node.word = null;
+            } else if (node.word == null) {
+                node.word = username;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<String> collectTop(Node from) {
+        PriorityQueue<Node> heap = new PriorityQueue<>(BY_RANK.reversed());
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(from);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            if (node.count > 0) {
+                heap.offer(node);
+                if (heap.size() > maxTopK) {
+                    heap.poll();
+                }
+            }
+            for (int i = 0; i < node.size; i++) {
+                stack.push(node.children[i]);
+            }
+        }
+        List<Node> ranked = new ArrayList<>(heap);
+        ranked.sort(BY_RANK);
+        List<String> top = new ArrayList<>(ranked.size());
+        for (Node node : ranked) {
+            top.add(node.word);
+        }
+        return List.copyOf(top);
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private int size;
+
+        private int count;
+        private String word;
+        private volatile List<String> top;
+
+        Node child(char c) {
+            int idx = Arrays.binarySearch(keys, 0, size, c);
+            return idx >= 0 ? children[idx] : null;
+        }
+
+        Node childOrCreate(char c) {
+            int idx = Arrays.binarySearch(keys, 0, size, c);
+            if (idx >= 0) {
+                return children[idx];
+            }
+            int insertAt = -idx - 1;
+            if (size == keys.length) {
+                int capacity = Math.max(2, size * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, insertAt, keys, insertAt + 1, size - insertAt);
+            System.arraycopy(children, insertAt, children, insertAt + 1, size - insertAt);
+            Node node = new Node();
+            keys[insertAt] = c;
+            children[insertAt] = node;
+            size++;
+            return node;
+        }
+    }
+}
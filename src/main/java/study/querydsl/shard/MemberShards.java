@@ -0,0 +1,179 @@
+package study.querydsl.shard;
+
+import com.querydsl.sql.SQLQueryFactory;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+import study.querydsl.repository.MemberSqlRepository;
+import study.querydsl.repository.sql.SqlQuerydslConfig;
+import study.querydsl.repository.support.QueryDeadline;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * member.sharding.urls (콤마 구분) 에 설정된 데이터소스들, team id 기준으로 member / team 행을 나눠 저장한다
+ * id 는 샤드마다의 시퀀스 값 * 샤드 수 + 샤드 번호 로 만들어서 id 만으로 샤드를 알 수 있다
+ * (샤드 수를 바꾸면 기존 id 의 위치가 달라지므로 재분배는 지원하지 않는다)
+ * 팀은 라운드 로빈으로 샤드를 정하고, 회원은 팀과 같은 샤드에 둔다 (팀이 없으면 0번 샤드)
+ * scatter 용 스레드는 샤드마다 따로 두고 그 샤드의 커넥션 풀 크기까지만 늘린다 (그 이상은 어차피 커넥션을 기다린다)
+ * 쓰지 않는 스레드는 정리되므로 요청이 몰릴 때만 늘어나고, 한 샤드가 느려도 다른 샤드의 작업이 그 뒤에 줄서지 않는다
+ */
+@Component
+@ConditionalOnProperty("member.sharding.urls")
+public class MemberShards implements DisposableBean {
+    private final List<Shard> shards = new ArrayList<>();
+    private final AtomicInteger nextTeamShard = new AtomicInteger();
+
+    public MemberShards(@Value("${member.sharding.urls}") List<String> urls,
+                        @Value("${spring.datasource.username:sa}") String username,
+                        @Value("${spring.datasource.password:}") String password,
+                        @Value("${member.sharding.init-schema:false}") boolean initSchema,
+                        Environment environment) {
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(urls.get(i).trim())
+                    .username(username)
+                    .password(password)
+                    .build();
+            dataSource.setPoolName("member-shard-" + i);
+            if (initSchema) {
+                new ResourceDatabasePopulator(new ClassPathResource("db/shard-schema.sql")).execute(dataSource);
+            }
+            SQLQueryFactory queryFactory = SqlQuerydslConfig.newSqlQueryFactory(dataSource);
+            shards.add(new Shard(i, dataSource, queryFactory, new JdbcTemplate(dataSource),
+                    new MemberSqlRepository(queryFactory, environment), newExecutor(i, dataSource.getMaximumPoolSize())));
+        }
+    }
+
+    private static ThreadPoolExecutor newExecutor(int index, int maxThreads) {
+        AtomicInteger threads = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "member-shard-" + index + "-query-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    public int size() {
+        return shards.size();
+    }
+
+    public List<Shard> all() {
+        return shards;
+    }
+
+    public Shard forTeam(Long teamId) {
+        return teamId == null ? shards.get(0) : shards.get((int) Math.floorMod(teamId, (long) shards.size()));
+    }
+
+    public Shard forMember(Long memberId) {
+        return shards.get((int) Math.floorMod(memberId, (long) shards.size()));
+    }
+
+    public Shard forNewTeam() {
+        return shards.get(Math.floorMod(nextTeamShard.getAndIncrement(), shards.size()));
+    }
+
+    //샤드 번호가 id 에 들어가도록 시퀀스 값을 변환
+    public long nextId(Shard shard, String sequence) {
+        Long local = shard.getJdbcTemplate().queryForObject("select next value for " + sequence, Long.class);
+        return local * shards.size() + shard.getIndex();
+    }
+
+    /**
+     * 모든 샤드에서 병렬로 실행하고 샤드 순서대로 결과를 모은다, 하나라도 실패하면 그 예외를 던진다
+     * 끝나는 순서대로 확인하므로 어느 샤드가 실패하든 나머지 샤드의 작업은 스레드 인터럽트와 함께
+     * 실행 중인 JDBC statement 를 취소해서 바로 멈춘다
+     */
+    public <T> List<T> scatter(Function<Shard, T> work) {
+        QueryDeadline deadline = QueryDeadline.fork();
+        List<T> results = new ArrayList<>(Collections.nCopies(shards.size(), null));
+        List<Future<T>> futures = new ArrayList<>(shards.size());
+        BlockingQueue<Future<T>> completed = new LinkedBlockingQueue<>();
+        for (Shard shard : shards) {
+            CompletionService<T> completion = new ExecutorCompletionService<>(shard.getExecutor(), completed);
+            futures.add(completion.submit(() -> {
+                T result = deadline.call(() -> work.apply(shard));
+                results.set(shard.getIndex(), result);
+                return result;
+            }));
+        }
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                completed.take().get();
+            }
+        } catch (ExecutionException e) {
+            cancel(deadline, futures);
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            cancel(deadline, futures);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("shard query interrupted", e);
+        }
+        return results;
+    }
+
+    private static void cancel(QueryDeadline deadline, List<? extends Future<?>> futures) {
+        deadline.cancel();
+        futures.forEach(future -> future.cancel(true));
+    }
+
+    @Override
+    public void destroy() {
+        shards.forEach(shard -> {
+            shard.getExecutor().shutdownNow();
+            shard.getDataSource().close();
+        });
+    }
+
+    @Getter
+    public static class Shard {
+        private final int index;
+        private final HikariDataSource dataSource;
+        private final SQLQueryFactory queryFactory;
+        private final JdbcTemplate jdbcTemplate;
+        private final MemberSqlRepository memberSqlRepository;
+        private final ExecutorService executor;
+
+        Shard(int index, HikariDataSource dataSource, SQLQueryFactory queryFactory,
+              JdbcTemplate jdbcTemplate, MemberSqlRepository memberSqlRepository, ExecutorService executor) {
+            this.index = index;
+            this.dataSource = dataSource;
+            this.queryFactory = queryFactory;
+            this.jdbcTemplate = jdbcTemplate;
+            this.memberSqlRepository = memberSqlRepository;
+            this.executor = executor;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package study.querydsl.shard;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberSorts;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static study.querydsl.repository.sql.SMember.sMember;
+import static study.querydsl.repository.sql.STeam.sTeam;
+
+/**
+ * MemberShards 위에서 동작하는 회원 저장소
+ * 저장과 id 조회는 소유 샤드 한 곳으로 보내고, 검색은 모든 샤드에 병렬로 보낸 뒤 합친다
+ * 샤드마다 커넥션이 다르므로 저장은 각 insert 단위로 커밋된다 (샤드 사이 트랜잭션 없음)
+ */
+@Repository
+@ConditionalOnProperty("member.sharding.urls")
+@RequiredArgsConstructor
+public class ShardedMemberRepository {
+    private final MemberShards memberShards;
+
+    public Team saveTeam(Team team) {
+        MemberShards.Shard shard = memberShards.forNewTeam();
+        team.setId(memberShards.nextId(shard, "team_seq"));
+        shard.getQueryFactory()
+                .insert(sTeam)
+                .set(sTeam.memberId, team.getId())
+                .set(sTeam.name, team.getName())
+                .execute();
+        return team;
+    }
+
+    public Member save(Member member) {
+        Long teamId = member.getTeam() != null ? member.getTeam().getId() : null;
+        MemberShards.Shard shard = memberShards.forTeam(teamId);
+        member.setId(memberShards.nextId(shard, "member_seq"));
+        shard.getQueryFactory()
+                .insert(sMember)
+                .set(sMember.memberId, member.getId())
+                .set(sMember.username, member.getUsername())
+                .set(sMember.age, member.getAge())
+                .set(sMember.teamId, teamId)
+                .set(sMember.lastActiveAt, LocalDateTime.now())
+                .execute();
+        return member;
+    }
+
+    public Optional<MemberTeamDto> findById(Long memberId) {
+        return Optional.ofNullable(memberShards.forMember(memberId).getQueryFactory()
+                .select(new QMemberTeamDto(
+                        sMember.memberId,
+                        sMember.username,
+                        sMember.age,
+                        sTeam.memberId,
+                        sTeam.name))
+                .from(sMember)
+                .leftJoin(sTeam).on(sTeam.memberId.eq(sMember.teamId))
+                .where(sMember.memberId.eq(memberId))
+                .fetchOne());
+    }
+
+    //샤드 결과를 합쳐 member_id 순으로 반환
+    public List<MemberTeamDto> search(MemberSearchCondition cond) {
+        List<MemberTeamDto> merged = new ArrayList<>();
+        memberShards.scatter(shard -> shard.getMemberSqlRepository().search(cond)).forEach(merged::addAll);
+        merged.sort(Comparator.comparing(MemberTeamDto::getMemberId));
+        return merged;
+    }
+
+    /**
+     * 각 샤드에서 같은 정렬로 offset + size 건까지 읽고, 합쳐서 다시 정렬한 뒤 요청한 페이지만 자른다
+     * total 은 샤드별 count 의 합
+     * 샤드마다 offset 까지 읽어야 하므로 뒤쪽 페이지일수록 비싸다
+     */
+    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition cond, Pageable pageable) {
+        int offset = Math.toIntExact(pageable.getOffset());
+        Pageable head = PageRequest.of(0, Math.addExact(offset, pageable.getPageSize()), pageable.getSort());
+        List<Page<MemberTeamDto>> pages = memberShards.scatter(shard -> shard.getMemberSqlRepository().searchPage(cond, head));
+
+        long total = 0;
+        List<MemberTeamDto> merged = new ArrayList<>();
+        for (Page<MemberTeamDto> page : pages) {
+            total += page.getTotalElements();
+            merged.addAll(page.getContent());
+        }
+        merged.sort(MemberSorts.toComparator(pageable.getSort()));
+        List<MemberTeamDto> content = offset < merged.size()
+                ? new ArrayList<>(merged.subList(offset, Math.min(merged.size(), offset + pageable.getPageSize())))
+                : new ArrayList<>();
+        return new PageImpl<>(content, pageable, total);
+    }
+}
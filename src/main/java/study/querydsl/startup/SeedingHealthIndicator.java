@@ -0,0 +1,40 @@
+package study.querydsl.startup;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * 백그라운드 시드 데이터 적재 상태, readiness 그룹에 포함되어 적재가 끝날 때까지 /actuator/health/readiness 가 503 을 준다
+ * 시드를 하지 않는 프로필에서는 항상 UP
+ */
+@Component("seeding")
+public class SeedingHealthIndicator implements HealthIndicator {
+    private volatile boolean running;
+    private volatile Throwable failure;
+
+    public void started() {
+        failure = null;
+        running = true;
+    }
+
+    public void finished() {
+        running = false;
+    }
+
+    public void failed(Throwable cause) {
+        failure = cause;
+        running = false;
+    }
+
+    @Override
+    public Health health() {
+        if (running) {
+            return Health.outOfService().withDetail("seeding", "in progress").build();
+        }
+        if (failure != null) {
+            return Health.down(failure).build();
+        }
+        return Health.up().build();
+    }
+}
@@ -0,0 +1,39 @@
+package study.querydsl.startup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aot.AotDetector;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * 기동 시간 측정, JVM 시작부터 트래픽을 받을 수 있을 때까지를 남긴다
+ * ready: 컨텍스트 refresh + runner 까지 끝난 시점, seeded: 백그라운드 시드까지 끝나 readiness 가 UP 이 된 시점
+ * AOT / CDS 사용 여부를 같이 남겨서 설정별로 비교할 수 있게 한다
+ */
+@Slf4j
+@Component
+public class StartupTimer {
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        log.info("ready in {} ms (jvm uptime {} ms, aot={}, cds={})",
+                event.getTimeTaken().toMillis(), uptimeMillis(), AotDetector.useGeneratedArtifacts(), cdsEnabled());
+    }
+
+    public void seeded() {
+        log.info("seeded and accepting traffic at jvm uptime {} ms", uptimeMillis());
+    }
+
+    private static long uptimeMillis() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+
+    private static boolean cdsEnabled() {
+        List<String> jvmArgs = ManagementFactory.getRuntimeMXBean().getInputArguments();
+        return jvmArgs.stream().anyMatch(arg -> arg.startsWith("-XX:SharedArchiveFile"));
+    }
+}
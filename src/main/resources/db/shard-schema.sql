@@ -0,0 +1,22 @@
+-- member.sharding.init-schema=true 일 때 각 샤드에 실행 (Member / Team 엔티티 매핑과 같게 유지)
+create sequence if not exists team_seq;
+create sequence if not exists member_seq;
+
+create table if not exists team (
+    member_id bigint not null primary key,
+    name varchar(255)
+);
+create index if not exists idx_team_name on team (name);
+
+create table if not exists member (
+    member_id bigint not null primary key,
+    age integer not null,
+    team_id bigint,
+    username varchar(255),
+    last_active_at timestamp(6),
+    constraint fk_member_team foreign key (team_id) references team (member_id)
+);
+create index if not exists idx_member_username on member (username);
+create index if not exists idx_member_age on member (age);
+create index if not exists idx_member_team_age on member (team_id, age);
+create index if not exists idx_member_last_active_at on member (last_active_at);
@@ -21,8 +21,10 @@ import org.springframework.test.annotation.Commit;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.MemberDtoProjection;
 import study.querydsl.dto.QMemberDto;
 import study.querydsl.dto.UserDto;
+import study.querydsl.dto.UserDtoProjection;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.Team;
@@ -604,6 +606,27 @@ public class QuerydslBasicTest {
         }
     }
 
+    //@DtoProjection 으로 생성된 Projection, 필드 선언 순서대로 넘기고 setter 를 직접 호출 (리플렉션, as 불필요)
+    @Test
+    public void findDtoByGeneratedProjection() throws Exception {
+        //given
+        List<MemberDto> result = queryFactory
+                .select(new MemberDtoProjection(member.username, member.age))
+                .from(member)
+                .fetch();
+
+        List<UserDto> userResult = queryFactory
+                .select(new UserDtoProjection(member.username, member.age))
+                .from(member)
+                .orderBy(member.age.asc())
+                .fetch();
+
+        //then
+        assertThat(result).hasSize(userResult.size());
+        assertThat(userResult.get(0).getName()).isEqualTo("member1");
+        assertThat(userResult.get(0).getAge()).isEqualTo(10);
+    }
+
     @Test
     public void findUserDto() throws Exception {
         //given
@@ -0,0 +1,39 @@
+package study.querydsl.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberColumnarPageWriterTest {
+
+    @Test
+    public void write() throws Exception {
+        //given
+        List<MemberTeamDto> content = List.of(
+                new MemberTeamDto(1L, "member1", 10, 1L, "teamA"),
+                new MemberTeamDto(2L, "member2", 20, 2L, "teamB"),
+                new MemberTeamDto(3L, "member3", 30, 1L, "teamA"),
+                new MemberTeamDto(4L, "member4", 40, null, null));
+        PageImpl<MemberTeamDto> page = new PageImpl<>(content, PageRequest.of(0, 4), 10);
+
+        //when
+        StringWriter out = new StringWriter();
+        try (JsonGenerator gen = new JsonFactory().createGenerator(out)) {
+            MemberColumnarPageWriter.write(page, gen);
+        }
+
+        //then
+        assertThat(out.toString()).isEqualTo("{\"page\":{\"number\":0,\"size\":4,\"totalElements\":10}," +
+                "\"columns\":{\"memberId\":[1,2,3,4],\"username\":[\"member1\",\"member2\",\"member3\",\"member4\"]," +
+                "\"age\":[10,20,30,40],\"teamId\":[1,2,1,null],\"teamName\":[0,1,0,null]}," +
+                "\"dictionaries\":{\"teamName\":[\"teamA\",\"teamB\"]}}");
+    }
+}
@@ -0,0 +1,100 @@
+package study.querydsl.controller;
+
+import com.querydsl.core.types.Predicate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import study.querydsl.repository.MemberFilterRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * /v3 의 @QuerydslPredicate 바인딩(MemberRepository.customize)과 MemberFilterGuard 검사, 검색 예외의 HTTP 상태
+ * /v3 조회는 MemberFilterRepository 를 mock 으로 바꿔서 바인딩된 Predicate 만 확인한다
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberControllerTest {
+    @Autowired
+    MockMvc mockMvc;
+    @MockBean
+    MemberFilterRepository memberFilterRepository;
+
+    @BeforeEach
+    public void before() {
+        given(memberFilterRepository.search(any(), any())).willReturn(Page.empty());
+    }
+
+    @Test
+    public void v3BindsTeamIdAndAgeRange() throws Exception {
+        //when
+        MvcResult result = mockMvc.perform(get("/v3")
+                        .param("team.id", "1", "2")
+                        .param("age", "29", "20"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        //then team.id 는 in, age 두 값은 작은 값부터 between
+        ArgumentCaptor<Predicate> predicate = ArgumentCaptor.forClass(Predicate.class);
+        verify(memberFilterRepository).search(predicate.capture(), any(Pageable.class));
+        assertThat(predicate.getValue().toString())
+                .contains("member.team.id in [1, 2]")
+                .contains("member.age between 20 and 29");
+    }
+
+    @Test
+    public void v3SingleAgeIsEq() throws Exception {
+        //when
+        MvcResult result = mockMvc.perform(get("/v3").param("team.id", "1").param("age", "20"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        //then
+        ArgumentCaptor<Predicate> predicate = ArgumentCaptor.forClass(Predicate.class);
+        verify(memberFilterRepository).search(predicate.capture(), any(Pageable.class));
+        assertThat(predicate.getValue().toString()).contains("member.age = 20");
+    }
+
+    @Test
+    public void v3RejectsUnknownParameter() throws Exception {
+        mockMvc.perform(get("/v3").param("team.id", "1").param("teamName", "teamA"))
+                .andExpect(status().isBadRequest());
+
+        verify(memberFilterRepository, never()).search(any(), any());
+    }
+
+    @Test
+    public void unsupportedSortIsBadRequest() throws Exception {
+        MvcResult result = mockMvc.perform(get("/v2").param("sort", "teamName"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void v3RejectsDeepPage() throws Exception {
+        mockMvc.perform(get("/v3").param("team.id", "1").param("page", "1000").param("size", "100"))
+                .andExpect(status().isBadRequest());
+
+        verify(memberFilterRepository, never()).search(any(), any());
+    }
+}
@@ -0,0 +1,75 @@
+package study.querydsl.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+
+class MemberFilterGuardTest {
+    MemberFilterGuard guard = new MemberFilterGuard(100, 20, 10_000);
+
+    @Test
+    public void allowIndexedFilters() throws Exception {
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("team.id", "1");
+        params.add("age", "20");
+        params.add("age", "60");
+        params.add("page", "0");
+
+        assertThatCode(() -> guard.check(params,
+                member.team.id.in(1L).and(member.age.between(20, 60)), PageRequest.of(0, 20)))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    public void rejectFullScans() throws Exception {
+        //조건 없음
+        assertThatThrownBy(() -> guard.check(new LinkedMultiValueMap<>(), null, PageRequest.of(0, 20)))
+                .isInstanceOf(ResponseStatusException.class);
+
+        //인덱스 없는 경로
+        MultiValueMap<String, String> teamName = new LinkedMultiValueMap<>();
+        teamName.add("team.name", "teamA");
+        assertThatThrownBy(() -> guard.check(teamName, null, PageRequest.of(0, 20)))
+                .isInstanceOf(ResponseStatusException.class);
+
+        //넓은 나이 범위만
+        MultiValueMap<String, String> ages = new LinkedMultiValueMap<>();
+        ages.add("age", "0");
+        ages.add("age", "100");
+        assertThatThrownBy(() -> guard.check(ages, member.age.between(0, 100), PageRequest.of(0, 20)))
+                .isInstanceOf(ResponseStatusException.class);
+
+        //like
+        MultiValueMap<String, String> username = new LinkedMultiValueMap<>();
+        username.add("username", "member");
+        assertThatThrownBy(() -> guard.check(username, member.username.contains("member"), PageRequest.of(0, 20)))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    public void rejectLargePage() throws Exception {
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("username", "member1");
+
+        assertThatThrownBy(() -> guard.check(params, member.username.eq("member1"), PageRequest.of(0, 1000)))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    public void rejectDeepPage() throws Exception {
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("team.id", "1");
+        params.add("page", "1000");
+
+        assertThatThrownBy(() -> guard.check(params, member.team.id.in(1L), PageRequest.of(1000, 100)))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThatCode(() -> guard.check(params, member.team.id.in(1L), PageRequest.of(100, 100)))
+                .doesNotThrowAnyException();
+    }
+}
@@ -0,0 +1,28 @@
+package study.querydsl.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchAdmissionTest {
+
+    @Test
+    public void cappedAdmissionLimitsPage() throws Exception {
+        //given
+        SearchAdmission.Admission capped = SearchAdmission.Admission.capped(100);
+        Sort sort = Sort.by("age");
+
+        //when
+        Pageable unpaged = capped.limit(Pageable.unpaged(sort));
+        Pageable small = capped.limit(PageRequest.of(2, 20));
+
+        //then 잘린 응답은 실제로 rowLimit 건만 조회한다
+        assertThat(unpaged).isEqualTo(PageRequest.of(0, 100, sort));
+        assertThat(small).isEqualTo(PageRequest.of(2, 20));
+        Pageable all = Pageable.unpaged();
+        assertThat(SearchAdmission.Admission.admitted().limit(all)).isSameAs(all);
+    }
+}
@@ -0,0 +1,98 @@
+package study.querydsl.outbox;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.OutboxEvent;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest(properties = {"member.outbox.enabled=true", "member.outbox.poll-interval=PT1H"})
+@Transactional
+@RecordApplicationEvents
+class OutboxTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    OutboxTailer outboxTailer;
+    @Autowired
+    ApplicationEvents events;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    public void writeAndTail() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        Member member1 = new Member("member1", 10, teamA);
+        memberJpaRepository.save(member1);
+        em.flush();
+        member1.setAge(11);
+        em.flush();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("member1");
+        memberJpaRepository.bulkRename(condition, "renamed");
+
+        //when
+        int published = outboxTailer.poll();
+
+        //then
+        List<OutboxMessage> messages = events.stream(OutboxMessage.class).toList();
+        assertThat(published).isEqualTo(4);
+        assertThat(messages).extracting("eventType").containsExactly("INSERT", "INSERT", "UPDATE", "RENAME");
+        assertThat(messages).extracting("aggregateType").containsExactly("TEAM", "MEMBER", "MEMBER", "MEMBER");
+        assertThat(messages.get(2).getPayload()).contains("\"age\":11");
+        assertThat(messages.get(3).getPayload()).contains("\"username\":\"renamed\"");
+        assertThat(em.createQuery("select count(o) from OutboxEvent o", Long.class).getSingleResult()).isZero();
+        assertThat(outboxTailer.poll()).isZero();
+    }
+
+    //BULK 는 커밋 직전에 기록되므로 테스트 트랜잭션 없이 실제로 커밋한다
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void rawBulkUpdateIsRecorded() throws Exception {
+        //given
+        Member member1 = new Member("bulk1", 10);
+        transactionTemplate.executeWithoutResult(status -> em.persist(member1));
+        outboxTailer.poll();
+
+        try {
+            //when 리포지토리를 거치지 않은 Querydsl 벌크 update
+            transactionTemplate.executeWithoutResult(status -> new JPAQueryFactory(em)
+                    .update(member)
+                    .set(member.age, 11)
+                    .where(member.id.eq(member1.getId()))
+                    .execute());
+            outboxTailer.poll();
+
+            //then
+            List<OutboxMessage> bulk = events.stream(OutboxMessage.class)
+                    .filter(message -> message.getEventType().equals("BULK"))
+                    .toList();
+            assertThat(bulk).hasSize(1);
+            assertThat(bulk.get(0).getAggregateType()).isEqualTo(OutboxWriter.MEMBER);
+            assertThat(bulk.get(0).getPayload()).containsIgnoringCase("update member");
+        } finally {
+            transactionTemplate.executeWithoutResult(status -> em.remove(em.find(Member.class, member1.getId())));
+            outboxTailer.poll();
+        }
+    }
+}
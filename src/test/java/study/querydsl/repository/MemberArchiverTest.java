@@ -0,0 +1,124 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doCallRealMethod;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 배치마다 트랜잭션이 따로 커밋되는지 보려면 테스트 트랜잭션에 묶이면 안되므로 직접 커밋하고 지운다
+ */
+@SpringBootTest(properties = "member.archive.batch-size=1")
+class MemberArchiverTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    MemberArchiver memberArchiver;
+    @Autowired
+    MemberRepository memberRepository;
+    @SpyBean
+    MemberJpaRepository memberJpaRepository;
+
+    Member member1;
+    Member member2;
+
+    @BeforeEach
+    public void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            member1 = new Member("member1", 10, teamA);
+            member2 = new Member("member2", 20, teamA);
+            em.persist(member1);
+            em.persist(member2);
+            em.persist(new Member("member3", 30, teamA));
+            em.persist(new Member("member4", 40));
+            em.flush();
+            //member1, member2 는 2년 동안 활동이 없었던 것으로
+            new JPAQueryFactory(em)
+                    .update(member)
+                    .set(member.lastActiveAt, LocalDateTime.now().minusYears(2))
+                    .where(member.id.in(member1.getId(), member2.getId()))
+                    .execute();
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from MemberArchive").executeUpdate();
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void archiveInBatches() throws Exception {
+        //when
+        long moved = memberArchiver.archiveOlderThan(LocalDateTime.now().minusYears(1));
+
+        //then
+        assertThat(moved).isEqualTo(2);
+        assertThat(memberJpaRepository.findById(member1.getId())).isEmpty();
+        assertThat(memberJpaRepository.findAll()).extracting("username").containsExactlyInAnyOrder("member3", "member4");
+        assertThat(archivedIds()).containsExactlyInAnyOrder(member1.getId(), member2.getId());
+    }
+
+    @Test
+    public void failedBatchKeepsCommittedBatches() throws Exception {
+        //given 두번째 배치에서 실패한다
+        doCallRealMethod()
+                .doThrow(new IllegalStateException("batch 2 failed"))
+                .when(memberJpaRepository).archiveInactive(any(), anyInt());
+
+        //when
+        assertThatThrownBy(() -> memberArchiver.archiveOlderThan(LocalDateTime.now().minusYears(1)))
+                .isInstanceOf(IllegalStateException.class);
+
+        //then 첫번째 배치(id 가 작은 member1)는 이미 커밋되어 남아있다
+        assertThat(archivedIds()).containsExactly(member1.getId());
+        assertThat(memberJpaRepository.findAll()).extracting("username").containsExactlyInAnyOrder("member2", "member3", "member4");
+    }
+
+    @Test
+    public void searchIncludeArchived() throws Exception {
+        //given
+        memberArchiver.archiveOlderThan(LocalDateTime.now().minusYears(1));
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        //when
+        List<MemberTeamDto> hot = memberRepository.search(condition);
+        List<MemberTeamDto> all = memberRepository.search(condition, true);
+
+        //then
+        assertThat(hot).extracting("username").containsExactly("member3");
+        assertThat(all).extracting("username").containsExactlyInAnyOrder("member1", "member2", "member3");
+        assertThat(all).extracting("teamName").containsOnly("teamA");
+    }
+
+    private List<Long> archivedIds() {
+        return em.createQuery("select a.id from MemberArchive a", Long.class).getResultList();
+    }
+}
@@ -0,0 +1,96 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+@SpringBootTest
+@Transactional
+class MemberBatchLoaderTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberBatchLoader memberBatchLoader;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Test
+    public void batchLoad() throws Exception {
+        //given
+        Member member1 = new Member("member1", 10);
+        Member member2 = new Member("member2", 20);
+        em.persist(member1);
+        em.persist(member2);
+        em.flush();
+        em.clear();
+
+        //when
+        CompletableFuture<Optional<Member>> find1 = memberBatchLoader.load(member1.getId());
+        CompletableFuture<Optional<Member>> find2 = memberBatchLoader.load(member2.getId());
+        CompletableFuture<Optional<Member>> missing = memberBatchLoader.load(-1L);
+        assertThat(find1).isNotDone();
+        memberBatchLoader.dispatch();
+
+        //then
+        assertThat(find1.join()).get().extracting("username").isEqualTo("member1");
+        assertThat(find2.join()).get().extracting("username").isEqualTo("member2");
+        assertThat(missing.join()).isEmpty();
+        assertThat(em.find(Member.class, member1.getId())).isSameAs(find1.join().get());
+        assertThat(memberBatchLoader.get(member2.getId())).containsSame(find2.join().get());
+    }
+
+    @Test
+    public void findByIdDispatchesPendingLoads() throws Exception {
+        //given
+        Member member1 = new Member("member1", 10);
+        Member member2 = new Member("member2", 20);
+        em.persist(member1);
+        em.persist(member2);
+        em.flush();
+        em.clear();
+
+        //when 테스트는 요청 컨텍스트 안에서 돌기 때문에 로더를 거친다
+        CompletableFuture<Optional<Member>> find1 = memberJpaRepository.loadById(member1.getId());
+        Optional<Member> find2 = memberJpaRepository.findById(member2.getId());
+
+        //then
+        assertThat(find1).isDone();
+        assertThat(find1.join()).get().extracting("username").isEqualTo("member1");
+        assertThat(find2).get().extracting("username").isEqualTo("member2");
+    }
+
+    @Test
+    public void failedLoadIsRetried() throws Exception {
+        //given
+        EntityManager failing = mock(EntityManager.class);
+        given(failing.unwrap(Session.class)).willThrow(new IllegalStateException("connection lost"));
+        MemberBatchLoader loader = new MemberBatchLoader(failing);
+        CompletableFuture<Optional<Member>> first = loader.load(1L);
+
+        //when
+        assertThatThrownBy(loader::dispatch).isInstanceOf(IllegalStateException.class);
+
+        //then 실패한 future 를 다시 돌려주지 않고 새로 조회한다
+        assertThat(first).isCompletedExceptionally();
+        CompletableFuture<Optional<Member>> retry = loader.load(1L);
+        assertThat(retry).isNotSameAs(first).isNotDone();
+        assertThat(loader.hasPending()).isTrue();
+    }
+
+    @Test
+    public void loadNullIsRejected() throws Exception {
+        assertThatThrownBy(() -> memberBatchLoader.load(null)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,74 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+@Transactional
+class MemberFilterRepositoryTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberFilterRepository memberFilterRepository;
+
+    Team teamA;
+    Team teamB;
+
+    @BeforeEach
+    public void before() {
+        teamA = new Team("teamA");
+        teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void searchByPredicate() throws Exception {
+        //when
+        Page<MemberTeamDto> result = memberFilterRepository.search(
+                member.team.id.in(List.of(teamA.getId(), teamB.getId())).and(member.age.between(20, 40)),
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "age")));
+
+        //then
+        assertThat(result.getTotalElements()).isEqualTo(3);
+        assertThat(result.getContent()).extracting("username").containsExactly("member4", "member3");
+        assertThat(result.getContent()).extracting("teamName").containsExactly("teamB", "teamB");
+    }
+
+    @Test
+    public void sameShapeReusesCompiledQuery() throws Exception {
+        //given
+        int before = memberFilterRepository.cachedShapes();
+
+        //when
+        Page<MemberTeamDto> first = memberFilterRepository.search(member.username.eq("member1"), PageRequest.of(0, 10));
+        Page<MemberTeamDto> second = memberFilterRepository.search(member.username.eq("member3"), PageRequest.of(0, 10));
+        memberFilterRepository.search(member.age.eq(10), PageRequest.of(0, 10));
+
+        //then
+        assertThat(first.getContent()).extracting("username").containsExactly("member1");
+        assertThat(second.getContent()).extracting("username").containsExactly("member3");
+        assertThat(memberFilterRepository.cachedShapes()).isEqualTo(before + 2);
+    }
+}
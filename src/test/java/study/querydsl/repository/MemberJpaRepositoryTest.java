@@ -2,6 +2,8 @@ package study.querydsl.repository;
 
 import jakarta.persistence.EntityManager;
 import org.assertj.core.api.Assertions;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -10,8 +12,10 @@ import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.repository.support.InLists;
 
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
@@ -58,6 +62,128 @@ class MemberJpaRepositoryTest {
         assertThat(byName).containsExactly(member1);
     }
 
+    @Test
+    public void findAllByIdsTest() throws Exception {
+        //given
+        Member member1 = new Member("member1", 10);
+        Member member2 = new Member("member2", 20);
+        Member member3 = new Member("member3", 30);
+        memberJpaRepository.save(member1);
+        memberJpaRepository.save(member2);
+        memberJpaRepository.save(member3);
+        em.flush();
+        em.clear();
+
+        //when
+        List<Member> byIds = memberJpaRepository.findAllByIds(List.of(member1.getId(), member3.getId(), member3.getId(), -1L));
+        List<Member> byUsernames = memberJpaRepository.findAllByUsernames(List.of("member2", "member3", "unknown"));
+
+        //then
+        assertThat(byIds).extracting("username").containsExactlyInAnyOrder("member1", "member3");
+        assertThat(byUsernames).extracting("username").containsExactlyInAnyOrder("member2", "member3");
+    }
+
+    @Test
+    public void findAllByIdsDenseRange() throws Exception {
+        //given
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < InLists.MAX_CHUNK + 100; i++) {
+            Member member = new Member("member" + i, i);
+            memberJpaRepository.save(member);
+            ids.add(member.getId());
+        }
+        em.flush();
+        em.clear();
+        List<Long> skipped = ids.subList(10, 20);
+        List<Long> requested = new ArrayList<>(ids);
+        requested.removeAll(skipped);
+        assertThat(InLists.denseRange(requested)).isNotNull();
+
+        //when
+        List<Member> result = memberJpaRepository.findAllByIds(requested);
+
+        //then 요청하지 않은 id 는 쿼리에서 걸러져서 영속성 컨텍스트에도 올라오지 않는다
+        assertThat(result).extracting("id").containsExactlyInAnyOrderElementsOf(requested);
+        assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isEqualTo(requested.size());
+    }
+
+    @Test
+    public void bulkChangeTeamTest() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 1; i <= 10; i++) {
+            em.persist(new Member("member" + i, i * 10, teamA));
+        }
+        em.flush();
+        em.clear();
+        Member managed = memberJpaRepository.findByUsername("member1").get(0);
+        Team loadedTeamB = em.find(Team.class, teamB.getId());
+
+        //when
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeLoe(50);
+        long moved = memberJpaRepository.bulkChangeTeam(condition, teamB.getId());
+
+        //then
+        assertThat(moved).isEqualTo(5);
+        assertThat(managed.getTeam().getId()).isEqualTo(teamB.getId());
+        assertThat(Hibernate.isInitialized(loadedTeamB.getMembers())).isFalse();
+        em.clear();
+        MemberSearchCondition byTeamB = new MemberSearchCondition();
+        byTeamB.setTeamName("teamB");
+        assertThat(memberJpaRepository.seach(byTeamB)).extracting("username")
+                .containsExactlyInAnyOrder("member1", "member2", "member3", "member4", "member5");
+    }
+
+    @Test
+    public void bulkChangeTeamRefreshesLoadedTargetMembers() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 1; i <= 4; i++) {
+            em.persist(new Member("member" + i, i * 10, i <= 2 ? teamA : teamB));
+        }
+        em.flush();
+        em.clear();
+        Team loadedTeamB = em.find(Team.class, teamB.getId());
+        assertThat(loadedTeamB.getMembers()).hasSize(2);
+
+        //when member1, member2 는 영속성 컨텍스트에 없으므로 벌크 update 로 옮겨진다
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        memberJpaRepository.bulkChangeTeam(condition, teamB.getId());
+
+        //then em.clear() 없이도 로딩돼 있던 teamB.members 에 보인다
+        assertThat(loadedTeamB.getMembers()).extracting("username")
+                .containsExactlyInAnyOrder("member1", "member2", "member3", "member4");
+    }
+
+    @Test
+    public void changeTeamTest() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        Member member1 = new Member("member1", 10, teamA);
+        em.persist(member1);
+        em.flush();
+        em.clear();
+
+        //when
+        memberJpaRepository.changeTeam(member1.getId(), teamB.getId());
+        em.flush();
+        em.clear();
+
+        //then
+        assertThat(em.find(Member.class, member1.getId()).getTeam().getName()).isEqualTo("teamB");
+    }
+
     @Test
     public void searchTest() throws Exception {
         //given
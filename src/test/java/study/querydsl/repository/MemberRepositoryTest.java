@@ -7,16 +7,21 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberFacets;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.Team;
+import study.querydsl.repository.support.TableVersions;
 
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
 import static study.querydsl.entity.QMember.member;
 
 @SpringBootTest
@@ -118,10 +123,91 @@ class MemberRepositoryTest {
 
         //then
         assertThat(seach.getSize()).isEqualTo(3);
+        assertThat(seach.getTotalElements()).isEqualTo(4);
 
         assertThat(seach.getContent()).extracting("username").containsExactly("member1", "member2","member3");
     }
 
+    @Test
+    public void facetsTest() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 45));
+
+        em.flush();
+        em.clear();
+
+        //when
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        condition.setAgeGoe(20);
+        MemberFacets facets = memberRepository.facets(condition);
+
+        //then
+        assertThat(facets.getTotal()).isEqualTo(2);
+        assertThat(facets.getTeams()).containsEntry("teamA", 1L).containsEntry("teamB", 2L).hasSize(2);
+        assertThat(facets.getAgeBuckets()).containsExactly(entry("30-39", 1L), entry("40-49", 1L));
+    }
+
+    @Test
+    public void facetKeyTest() throws Exception {
+        //given
+        //테스트 트랜잭션 안에서는 버전이 커밋 뒤에 올라가므로 mock 으로 대신한다
+        TableVersions versions = mock(TableVersions.class);
+        given(versions.get(TableVersions.MEMBER)).willReturn(1L);
+        MemberSearchCondition blank = new MemberSearchCondition();
+        blank.setUsername(" ");
+        blank.setTeamName("");
+        MemberSearchCondition lower = new MemberSearchCondition();
+        lower.setTeamName("teama");
+        MemberSearchCondition upper = new MemberSearchCondition();
+        upper.setTeamName("teamA");
+
+        //when
+        List<Object> before = MemberRepositoryImpl.facetKey(new MemberSearchCondition(), versions);
+        given(versions.get(TableVersions.MEMBER)).willReturn(2L);
+        List<Object> after = MemberRepositoryImpl.facetKey(new MemberSearchCondition(), versions);
+
+        //then 빈 문자열은 null 과 같은 키, 대소문자는 구분, 테이블이 바뀌면 다른 키
+        assertThat(MemberRepositoryImpl.facetKey(blank, versions)).isEqualTo(after);
+        assertThat(MemberRepositoryImpl.facetKey(lower, versions)).isNotEqualTo(MemberRepositoryImpl.facetKey(upper, versions));
+        assertThat(after).isNotEqualTo(before);
+    }
+
+    @Test
+    public void topByAgePerTeamTest() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamA));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 50));
+
+        em.flush();
+        em.clear();
+
+        //when
+        List<MemberTeamDto> oldest = memberRepository.findTopByAgePerTeam(2, true);
+        List<MemberTeamDto> youngest = memberRepository.findTopByAgePerTeam(1, false);
+
+        //then
+        assertThat(oldest).extracting("username").containsExactly("member3", "member2", "member4");
+        assertThat(oldest).extracting("teamName").containsExactly("teamA", "teamA", "teamB");
+        assertThat(youngest).extracting("username").containsExactly("member1", "member4");
+    }
 
     //조인이 불가능한 단점
     //repository 가 querydsl 을 직접적으로 의존해야함
@@ -154,4 +240,32 @@ class MemberRepositoryTest {
         //then
     }
 
+    @Test
+    public void existsAndCountUpToTest() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 1; i <= 10; i++) {
+            em.persist(new Member("member" + i, i * 10, i % 2 == 0 ? teamB : teamA));
+        }
+        em.flush();
+        em.clear();
+
+        MemberSearchCondition teamBCond = new MemberSearchCondition();
+        teamBCond.setTeamName("teamB");
+        MemberSearchCondition none = new MemberSearchCondition();
+        none.setUsername("nobody");
+
+        //when, then
+        assertThat(memberRepository.exists(teamBCond)).isTrue();
+        assertThat(memberRepository.exists(none)).isFalse();
+
+        assertThat(memberRepository.countUpTo(teamBCond, 3)).isEqualTo(3);
+        assertThat(memberRepository.countUpTo(teamBCond, 100)).isEqualTo(5);
+        assertThat(memberRepository.countUpTo(new MemberSearchCondition(), 100)).isEqualTo(10);
+        assertThat(memberRepository.countUpTo(none, 100)).isZero();
+    }
+
 }
\ No newline at end of file
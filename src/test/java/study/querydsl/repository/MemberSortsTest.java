@@ -0,0 +1,41 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.OrderSpecifier;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+
+class MemberSortsTest {
+
+    @Test
+    public void unsortedUsesIdOnly() throws Exception {
+        OrderSpecifier<?>[] orders = MemberSorts.toOrderSpecifiers(Sort.unsorted());
+
+        assertThat(orders).containsExactly(member.id.asc());
+    }
+
+    @Test
+    public void tieBreakerFollowsLastDirection() throws Exception {
+        OrderSpecifier<?>[] orders = MemberSorts.toOrderSpecifiers(Sort.by(Sort.Order.desc("age")));
+
+        assertThat(orders).containsExactly(member.age.desc(), member.id.desc());
+    }
+
+    @Test
+    public void noTieBreakerWhenIdSorted() throws Exception {
+        OrderSpecifier<?>[] orders = MemberSorts.toOrderSpecifiers(
+                Sort.by(Sort.Order.asc("username"), Sort.Order.desc("memberId"), Sort.Order.asc("age")));
+
+        assertThat(orders).containsExactly(member.username.asc(), member.id.desc());
+    }
+
+    @Test
+    public void rejectsUnindexedProperty() throws Exception {
+        assertThatThrownBy(() -> MemberSorts.toOrderSpecifiers(Sort.by("teamName")))
+                .isInstanceOf(MemberSorts.UnsupportedSortException.class)
+                .hasMessageContaining("teamName");
+    }
+}
@@ -0,0 +1,79 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberSqlRepositoryTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberSqlRepository memberSqlRepository;
+    @Autowired
+    MemberRepository memberRepository;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 50));
+        //SQL 경로는 flush 된 내용만 본다
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void searchSameAsJpa() throws Exception {
+        //given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+        condition.setTeamName("teamB");
+
+        //when
+        List<MemberTeamDto> sql = memberSqlRepository.search(condition);
+        List<MemberTeamDto> jpa = memberRepository.search(condition);
+
+        //then
+        assertThat(sql).extracting("username").containsExactlyInAnyOrder("member3", "member4");
+        assertThat(sql).containsExactlyInAnyOrderElementsOf(jpa);
+    }
+
+    @Test
+    public void searchPageSameAsJpa() throws Exception {
+        //given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by(Sort.Order.desc("age")));
+
+        //when
+        Page<MemberTeamDto> sql = memberSqlRepository.searchPage(condition, pageRequest);
+        Page<MemberTeamDto> jpa = memberRepository.searchPageComplex(condition, pageRequest);
+
+        //then
+        assertThat(sql.getTotalElements()).isEqualTo(5);
+        assertThat(sql.getContent()).extracting("username").containsExactly("member5", "member4", "member3");
+        assertThat(sql.getContent()).containsExactlyElementsOf(jpa.getContent());
+        assertThat(sql.getContent().get(0).getTeamId()).isNull();
+    }
+}
@@ -0,0 +1,127 @@
+package study.querydsl.repository;
+
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * MemberSearchCondition 조건 조합별로 search / searchPageComplex 가 실제로 날리는 SQL 을 p6spy 로 잡아서 H2 EXPLAIN 을 실행하고
+ * 실행 계획이 table scan 으로 바뀌면 실패한다 (스키마, 쿼리 변경 시 인덱스 회귀 방지)
+ */
+@SpringBootTest
+@Transactional
+@Import(QueryPlanTest.SqlCapture.class)
+class QueryPlanTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    SqlCapture sqlCapture;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 1; i <= 100; i++) {
+            em.persist(new Member("member" + i, i, i % 2 == 0 ? teamB : teamA));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    static Stream<Arguments> conditions() {
+        return Stream.of(
+                Arguments.of("username", condition("member1", null, null, null)),
+                Arguments.of("ageGoe+ageLoe", condition(null, null, 10, 20)),
+                Arguments.of("username+ageGoe", condition("member1", null, 10, null)),
+                Arguments.of("teamName", condition(null, "teamA", null, null)),
+                Arguments.of("teamName+ageGoe", condition(null, "teamA", 10, null))
+        );
+    }
+
+    @ParameterizedTest(name = "search {0}")
+    @MethodSource("conditions")
+    public void searchNoTableScan(String shape, MemberSearchCondition cond) throws Exception {
+        //when
+        List<String> statements = sqlCapture.capture(() -> memberRepository.search(cond));
+
+        //then
+        assertThat(statements).hasSize(1);
+        assertNoTableScan(shape, statements);
+    }
+
+    @ParameterizedTest(name = "searchPageComplex {0}")
+    @MethodSource("conditions")
+    public void searchPageComplexNoTableScan(String shape, MemberSearchCondition cond) throws Exception {
+        //when 페이지 크기 1 이면 모든 조합에서 count 쿼리까지 실행된다
+        List<String> statements = sqlCapture.capture(() -> memberRepository.searchPageComplex(cond, PageRequest.of(0, 1)));
+
+        //then
+        assertThat(statements).hasSize(2);
+        assertNoTableScan(shape, statements);
+    }
+
+    private void assertNoTableScan(String shape, List<String> statements) {
+        for (String sql : statements) {
+            String plan = String.valueOf(em.createNativeQuery("explain " + sql).getSingleResult());
+            assertThat(plan).as("plan for [%s]%n%s", shape, plan).doesNotContainIgnoringCase("tableScan");
+        }
+    }
+
+    private static MemberSearchCondition condition(String username, String teamName, Integer ageGoe, Integer ageLoe) {
+        MemberSearchCondition cond = new MemberSearchCondition();
+        cond.setUsername(username);
+        cond.setTeamName(teamName);
+        cond.setAgeGoe(ageGoe);
+        cond.setAgeLoe(ageLoe);
+        return cond;
+    }
+
+    /**
+     * p6spy 데이터소스 프록시에 등록되는 리스너, capture() 안에서 실행된 select 를 바인딩 값이 들어간 SQL 로 모은다
+     */
+    static class SqlCapture extends JdbcEventListener {
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+        private volatile boolean capturing;
+
+        List<String> capture(Runnable work) {
+            statements.clear();
+            capturing = true;
+            try {
+                work.run();
+            } finally {
+                capturing = false;
+            }
+            return new ArrayList<>(statements);
+        }
+
+        @Override
+        public void onBeforeExecuteQuery(PreparedStatementInformation statementInformation) {
+            if (capturing) {
+                statements.add(statementInformation.getSqlWithValues());
+            }
+        }
+    }
+}
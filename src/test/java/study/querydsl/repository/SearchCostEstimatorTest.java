@@ -0,0 +1,79 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.SearchCostEstimator.SearchCost;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchCostEstimatorTest {
+    //회원 10000명, 이름은 모두 다름, 팀 10개, 나이 1~100
+    MemberTableStats stats = new MemberTableStats(null) {
+        @Override
+        public Snapshot current() {
+            return new Snapshot(10_000, 10_000, 10, 1, 100);
+        }
+    };
+    SearchCostEstimator estimator = new SearchCostEstimator(stats);
+
+    @Test
+    public void indexedLookupIsCheap() throws Exception {
+        //given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("member1");
+
+        //when
+        SearchCost cost = estimator.estimate(condition, null);
+
+        //then
+        assertThat(cost.getScannedRows()).isEqualTo(1);
+        assertThat(cost.getCost()).isEqualTo(6);
+    }
+
+    @Test
+    public void emptyConditionScansWholeTable() throws Exception {
+        //when
+        SearchCost cost = estimator.estimate(new MemberSearchCondition(), null);
+        SearchCost capped = cost.limitTo(1000);
+
+        //then
+        assertThat(cost.getScannedRows()).isEqualTo(10_000);
+        assertThat(cost.getReturnedRows()).isEqualTo(10_000);
+        assertThat(cost.getCost()).isEqualTo(60_000);
+        assertThat(capped.getReturnedRows()).isEqualTo(1000);
+        assertThat(capped.getCost()).isEqualTo(15_000);
+    }
+
+    @Test
+    public void pagedTeamSearch() throws Exception {
+        //given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        condition.setAgeGoe(51);
+
+        //when
+        SearchCost cost = estimator.estimate(condition, PageRequest.of(0, 20));
+
+        //then 나이 조건으로 읽은 5000 건을 team 과 join 해서 거른다
+        assertThat(cost.getScannedRows()).isEqualTo(5000);
+        assertThat(cost.getMatchedRows()).isEqualTo(500);
+        assertThat(cost.getReturnedRows()).isEqualTo(20);
+        assertThat(cost.getCost()).isEqualTo(5000 * 2 + 20 * 5);
+    }
+
+    @Test
+    public void teamNameAloneIsJoinScan() throws Exception {
+        //given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        //when
+        SearchCost cost = estimator.estimate(condition, null);
+
+        //then
+        assertThat(cost.getScannedRows()).isEqualTo(10_000);
+        assertThat(cost.getMatchedRows()).isEqualTo(1000);
+        assertThat(cost.getCost()).isEqualTo(10_000 + 1000 * 5);
+    }
+}
@@ -0,0 +1,35 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InListsTest {
+
+    @Test
+    public void chunks() throws Exception {
+        //when
+        List<List<Long>> chunks = InLists.chunks(Arrays.asList(1L, 2L, 2L, null, 3L, 4L, 5L), 2);
+
+        //then
+        assertThat(chunks).containsExactly(List.of(1L, 2L), List.of(3L, 4L), List.of(5L));
+    }
+
+    @Test
+    public void denseRange() throws Exception {
+        //given
+        List<Long> dense = new ArrayList<>(LongStream.rangeClosed(1, 3000).filter(id -> id % 3 != 0).boxed().toList());
+        List<Long> sparse = LongStream.rangeClosed(1, 3000).map(id -> id * 10).boxed().toList();
+
+        //then
+        assertThat(InLists.denseRange(dense)).containsExactly(1L, 2999L);
+        assertThat(InLists.denseRange(sparse)).isNull();
+        assertThat(InLists.denseRange(List.of(1L, 2L, 3L))).isNull();
+        assertThat(InLists.gaps(dense, 1, 2999)).hasSize(999).allMatch(id -> id % 3 == 0);
+    }
+}
@@ -0,0 +1,60 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberTestRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MyQuerydslRepositorySupportTest {
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberTestRepository memberTestRepository;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void readOnlyEntitiesAreNotDirtyChecked() throws Exception {
+        //when
+        List<Member> members = memberTestRepository.basicSelectFrom();
+        members.get(0).setUsername("changed");
+        em.flush();
+        em.clear();
+
+        //then
+        Session session = em.unwrap(Session.class);
+        assertThat(members).hasSize(2);
+        assertThat(memberTestRepository.basicSelectFrom()).extracting("username").containsExactlyInAnyOrder("member1", "member2");
+        assertThat(session.isReadOnly(memberTestRepository.basicSelectFrom().get(0))).isTrue();
+    }
+
+    @Test
+    public void statelessEntitiesAreDetached() throws Exception {
+        //when
+        List<Member> members = memberTestRepository.basicSelectStateless();
+
+        //then
+        assertThat(members).extracting("username").containsExactlyInAnyOrder("member1", "member2");
+        assertThat(members).noneMatch(em::contains);
+    }
+}
@@ -0,0 +1,63 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.QueryTimeoutException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+@Transactional
+class QueryDeadlineTest {
+    @Autowired
+    EntityManager em;
+
+    @Test
+    public void timeoutHint() throws Exception {
+        //given
+        DeadlineJPAQueryFactory queryFactory = new DeadlineJPAQueryFactory(em);
+        QueryDeadline deadline = new QueryDeadline(Duration.ofSeconds(3));
+
+        //when 마감은 쿼리를 만든 시점이 아니라 실행(createQuery) 시점 기준
+        JPAQuery<?> builtInside = deadline.call(() -> queryFactory.selectFrom(member));
+        JPAQuery<?> builtOutside = queryFactory.selectFrom(member);
+
+        //then
+        assertThat(builtInside.createQuery().getHints()).doesNotContainKey(QueryDeadline.TIMEOUT_HINT);
+        assertThat(deadline.call(() -> builtOutside.createQuery().getHints())).containsKey(QueryDeadline.TIMEOUT_HINT);
+    }
+
+    @Test
+    public void timeoutHintUsesRemainingTimeAtExecution() throws Exception {
+        //given
+        DeadlineJPAQueryFactory queryFactory = new DeadlineJPAQueryFactory(em);
+        QueryDeadline deadline = new QueryDeadline(Duration.ofSeconds(3));
+        JPAQuery<?> query = deadline.call(() -> queryFactory.selectFrom(member));
+
+        //when
+        Thread.sleep(1_100);
+        Object timeout = deadline.call(() -> query.createQuery().getHints().get(QueryDeadline.TIMEOUT_HINT));
+
+        //then
+        assertThat((Integer) timeout).isLessThanOrEqualTo(1_900);
+    }
+
+    @Test
+    public void expiredDeadline() throws Exception {
+        //given
+        DeadlineJPAQueryFactory queryFactory = new DeadlineJPAQueryFactory(em);
+        QueryDeadline deadline = new QueryDeadline(Duration.ZERO);
+
+        //when, then
+        assertThatThrownBy(() -> deadline.call(() -> queryFactory.selectFrom(member).fetch()))
+                .isInstanceOf(QueryTimeoutException.class);
+    }
+}
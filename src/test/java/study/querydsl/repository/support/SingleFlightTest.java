@@ -0,0 +1,138 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.QueryTimeoutException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    @Test
+    public void sharedResultIsUnmodifiable() throws Exception {
+        //given
+        SingleFlight<String, List<String>> flights = new SingleFlight<>(List::copyOf);
+
+        //when
+        List<String> result = flights.execute("teamA", () -> new ArrayList<>(List.of("member1")));
+
+        //then 같이 받은 다른 호출의 결과를 바꾸지 못한다
+        assertThatThrownBy(() -> result.add("member2")).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void concurrentCallsShareOneExecution() throws Exception {
+        //given
+        SingleFlight<String, List<String>> flights = new SingleFlight<>();
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(8);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        //when
+        List<Future<List<String>>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> {
+                started.countDown();
+                return flights.execute("teamA", () -> {
+                    executions.incrementAndGet();
+                    awaitQuietly(release);
+                    return List.of("member1", "member2");
+                });
+            }));
+        }
+        started.await(5, TimeUnit.SECONDS);
+        Thread.sleep(200);
+        release.countDown();
+
+        //then
+        List<String> first = results.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<List<String>> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(first);
+        }
+        assertThat(executions.get()).isEqualTo(1);
+        executor.shutdown();
+    }
+
+    @Test
+    public void notCachedAfterCompletion() throws Exception {
+        //given
+        SingleFlight<String, Integer> flights = new SingleFlight<>();
+        AtomicInteger executions = new AtomicInteger();
+
+        //when
+        flights.execute("key", executions::incrementAndGet);
+        flights.execute("key", executions::incrementAndGet);
+
+        //then
+        assertThat(executions.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void followerWaitsOnlyUntilOwnDeadline() throws Exception {
+        //given
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        CountDownLatch leading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<String> leader = executor.submit(() -> flights.execute("key", () -> {
+            leading.countDown();
+            awaitQuietly(release);
+            return "leader";
+        }));
+        leading.await(5, TimeUnit.SECONDS);
+
+        //when, then 리더는 아직 실행 중이지만 자기 마감이 지나면 먼저 포기한다
+        QueryDeadline deadline = new QueryDeadline(Duration.ofMillis(100));
+        assertThatThrownBy(() -> deadline.call(() -> flights.execute("key", () -> "follower")))
+                .isInstanceOf(QueryTimeoutException.class);
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("leader");
+        executor.shutdown();
+    }
+
+    @Test
+    public void cancelledLeaderIsReplaced() throws Exception {
+        //given
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        QueryDeadline leaderDeadline = new QueryDeadline(Duration.ofSeconds(5));
+        CountDownLatch leading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<String> leader = executor.submit(() -> leaderDeadline.call(() -> flights.execute("key", () -> {
+            leading.countDown();
+            awaitQuietly(release);
+            throw new QueryTimeoutException("cancelled");
+        })));
+        leading.await(5, TimeUnit.SECONDS);
+        Future<String> follower = executor.submit(() -> flights.execute("key", () -> "follower"));
+        Thread.sleep(200);
+
+        //when 리더의 클라이언트가 끊겨서 리더 쿼리가 취소됨
+        leaderDeadline.cancel();
+        release.countDown();
+
+        //then 기다리던 호출은 취소 예외를 나눠 받지 않고 직접 실행한다
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(QueryTimeoutException.class);
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("follower");
+        executor.shutdown();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TableChangeInspectorTest {
+    TableVersions versions = new TableVersions();
+    TableChangeInspector inspector = new TableChangeInspector(versions);
+
+    @Test
+    public void dmlBumpsVersion() throws Exception {
+        //given
+        long member = versions.get(TableVersions.MEMBER);
+        long team = versions.get(TableVersions.TEAM);
+
+        //when
+        inspector.inspect("select m1_0.member_id from member m1_0");
+        inspector.inspect("update member m1_0 set username=? where m1_0.age>=?");
+        inspector.inspect("/* insert */ insert into member (age,team_id,username,member_id) values (?,?,?,?)");
+        inspector.inspect("insert into hello (id) values (?)");
+
+        //then
+        assertThat(versions.get(TableVersions.MEMBER)).isEqualTo(member + 2);
+        assertThat(versions.get(TableVersions.TEAM)).isEqualTo(team);
+    }
+
+    @Test
+    public void bumpAfterCommitOnly() throws Exception {
+        //given
+        long member = versions.get(TableVersions.MEMBER);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            //when
+            inspector.inspect("delete from member where member_id=?");
+            inspector.inspect("delete from member where member_id=?");
+            assertThat(versions.get(TableVersions.MEMBER)).isEqualTo(member);
+            for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+                sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        //then
+        assertThat(versions.get(TableVersions.MEMBER)).isEqualTo(member + 1);
+    }
+
+    @Test
+    public void bulkDmlIsReported() throws Exception {
+        //given
+        List<String> bulk = new ArrayList<>();
+        TableChangeInspector inspector = new TableChangeInspector(versions, List.of((table, sql) -> bulk.add(table)));
+
+        //when 별칭이 붙은 HQL 번역 SQL 만 벌크로 본다
+        inspector.inspect("update member set age=?,team_id=?,username=? where member_id=?");
+        inspector.inspect("delete from member where member_id=?");
+        inspector.inspect("update member m1_0 set username=? where m1_0.age>=?");
+        inspector.inspect("delete from team t1_0 where t1_0.team_id=?");
+        TableChangeInspector.announced(() -> inspector.inspect("update member m1_0 set age=? where m1_0.member_id in (?)"));
+
+        //then
+        assertThat(bulk).containsExactly("member", "team");
+    }
+}
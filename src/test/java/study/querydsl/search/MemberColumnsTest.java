@@ -0,0 +1,92 @@
+package study.querydsl.search;
+
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberColumnsTest {
+
+    @Test
+    public void search() throws Exception {
+        //given
+        MemberColumns columns = new MemberColumns();
+        columns.upsert(4L, "member4", 40, 2L, "teamB");
+        columns.upsert(1L, "member1", 10, 1L, "teamA");
+        columns.upsert(3L, "member3", 30, 2L, "teamB");
+        columns.upsert(2L, "member2", 20, 1L, "teamA");
+        columns.upsert(5L, "member5", 50, null, null);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        condition.setAgeGoe(35);
+
+        //when
+        List<MemberTeamDto> result = columns.search(condition);
+
+        //then
+        assertThat(result).extracting("username").containsExactly("member4");
+        assertThat(columns.search(new MemberSearchCondition())).extracting("memberId").containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(columns.search(new MemberSearchCondition())).extracting("teamName").containsExactly("teamA", "teamA", "teamB", "teamB", null);
+    }
+
+    @Test
+    public void upsertAndRename() throws Exception {
+        //given
+        MemberColumns columns = new MemberColumns();
+        for (long id = 1; id <= 100; id++) {
+            columns.upsert(id, "member" + id, (int) id, 1L, "teamA");
+        }
+
+        //when
+        columns.upsert(50L, "member50", 99, 1L, "teamA");
+        columns.rename(51L, "renamed");
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("renamed");
+
+        //then
+        assertThat(columns.size()).isEqualTo(100);
+        assertThat(columns.search(condition)).extracting("memberId").containsExactly(51L);
+        condition.setUsername("unknown");
+        assertThat(columns.search(condition)).isEmpty();
+    }
+
+    @Test
+    public void changeTeam() throws Exception {
+        //given
+        MemberColumns columns = new MemberColumns();
+        columns.upsert(1L, "member1", 10, 1L, "teamA");
+        columns.upsert(2L, "member2", 20, 1L, "teamA");
+
+        //when
+        columns.changeTeam(1L, 2L, "teamB");
+        columns.changeTeam(2L, null, null);
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+
+        //then
+        assertThat(columns.search(condition)).extracting("memberId").containsExactly(1L);
+        assertThat(columns.search(new MemberSearchCondition())).extracting("teamId").containsExactly(2L, null);
+    }
+
+    @Test
+    public void remove() throws Exception {
+        //given
+        MemberColumns columns = new MemberColumns();
+        columns.upsert(1L, "member1", 10, 1L, "teamA");
+        columns.upsert(2L, "member2", 20, 1L, "teamA");
+        columns.upsert(3L, "member3", 30, null, null);
+
+        //when
+        boolean removed = columns.remove(2L);
+
+        //then
+        assertThat(removed).isTrue();
+        assertThat(columns.remove(2L)).isFalse();
+        assertThat(columns.size()).isEqualTo(2);
+        assertThat(columns.search(new MemberSearchCondition())).extracting("username").containsExactly("member1", "member3");
+    }
+}
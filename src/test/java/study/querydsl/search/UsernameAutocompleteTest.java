@@ -0,0 +1,78 @@
+package study.querydsl.search;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Projections;
+import org.junit.jupiter.api.Test;
+import study.querydsl.event.MemberArchivedEvent;
+import study.querydsl.event.MemberRenamedEvent;
+import study.querydsl.event.MemberSavedEvent;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static study.querydsl.entity.QMember.member;
+
+class UsernameAutocompleteTest {
+    MemberJpaRepository memberJpaRepository = mock(MemberJpaRepository.class);
+    UsernameAutocomplete autocomplete = new UsernameAutocomplete(memberJpaRepository);
+
+    @Test
+    public void changesDuringLoadAreKept() throws Exception {
+        //given 스캔 도중에 member3 이 저장된다
+        given(memberJpaRepository.streamIdAndUsernames()).willReturn(Stream.of(row(1L, "member1"), row(2L, "member2"))
+                .peek(row -> {
+                    if (row.get(member.id) == 2L) {
+                        autocomplete.onSaved(new MemberSavedEvent(3L, "member3", 30, null, null));
+                    }
+                }));
+
+        //when
+        autocomplete.load();
+
+        //then
+        assertThat(autocomplete.suggest("member", 10)).containsExactlyInAnyOrder("member1", "member2", "member3");
+    }
+
+    @Test
+    public void replayedRemoveKeepsSharedName() throws Exception {
+        //given 2번 회원은 스캔 전에 보관되어 스캔에 없지만 보관 이벤트는 스캔 도중에 도착한다, 3번 회원도 같은 이름이다
+        given(memberJpaRepository.streamIdAndUsernames()).willReturn(Stream.of(row(1L, "member1"), row(3L, "dup"))
+                .peek(row -> {
+                    if (row.get(member.id) == 1L) {
+                        autocomplete.onArchived(new MemberArchivedEvent(List.of(2L), List.of("dup")));
+                    }
+                }));
+
+        //when
+        autocomplete.load();
+
+        //then
+        assertThat(autocomplete.suggest("dup", 10)).containsExactly("dup");
+    }
+
+    @Test
+    public void replayedRenameIsNotCountedTwice() throws Exception {
+        //given 스캔이 이미 바뀐 이름을 읽었고 같은 변경이 재적용된다
+        given(memberJpaRepository.streamIdAndUsernames()).willReturn(Stream.of(row(1L, "renamed"), row(2L, "renamer"), row(3L, "renamer"))
+                .peek(row -> {
+                    if (row.get(member.id) == 1L) {
+                        autocomplete.onRenamed(new MemberRenamedEvent(List.of(1L), List.of("before"), "renamed"));
+                    }
+                }));
+
+        //when
+        autocomplete.load();
+
+        //then renamed 는 1명, renamer 는 2명 (두번 반영됐다면 같은 수가 되어 이름 순으로 renamed 가 먼저 온다)
+        assertThat(autocomplete.suggest("rename", 10)).containsExactly("renamer", "renamed");
+        assertThat(autocomplete.suggest("before", 10)).isEmpty();
+    }
+
+    private static Tuple row(Long id, String username) {
+        return Projections.tuple(member.id, member.username).newInstance(id, username);
+    }
+}
@@ -0,0 +1,47 @@
+package study.querydsl.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UsernameTrieTest {
+
+    @Test
+    public void suggest() throws Exception {
+        //given
+        UsernameTrie trie = new UsernameTrie(10);
+        trie.add("member1");
+        trie.add("member2");
+        trie.add("member2");
+        trie.add("Member10");
+        trie.add("teamA");
+
+        //when
+        List<String> result = trie.suggest("mem", 10);
+
+        //then
+        assertThat(result).containsExactly("member2", "member1", "Member10");
+        assertThat(trie.suggest("MEMBER1", 10)).containsExactly("member1", "Member10");
+        assertThat(trie.suggest("x", 10)).isEmpty();
+        assertThat(trie.suggest("", 10)).isEmpty();
+    }
+
+    @Test
+    public void limitAndRemove() throws Exception {
+        //given
+        UsernameTrie trie = new UsernameTrie(10);
+        for (int i = 1; i <= 20; i++) {
+            trie.add("member" + i);
+        }
+
+        //when
+        List<String> limited = trie.suggest("member", 3);
+        trie.remove("member1");
+
+        //then
+        assertThat(limited).containsExactly("member1", "member10", "member11");
+        assertThat(trie.suggest("member1", 3)).containsExactly("member10", "member11", "member12");
+    }
+}
@@ -0,0 +1,157 @@
+package study.querydsl.shard;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "member.sharding.urls=jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1",
+        "member.sharding.init-schema=true"
+})
+class ShardedMemberRepositoryTest {
+    @Autowired
+    MemberShards memberShards;
+    @Autowired
+    ShardedMemberRepository shardedMemberRepository;
+
+    Team teamA;
+    Team teamB;
+
+    @BeforeEach
+    public void before() {
+        //샤드는 트랜잭션 롤백 대상이 아니므로 직접 비운다
+        for (MemberShards.Shard shard : memberShards.all()) {
+            shard.getJdbcTemplate().update("delete from member");
+            shard.getJdbcTemplate().update("delete from team");
+        }
+        teamA = shardedMemberRepository.saveTeam(new Team("teamA"));
+        teamB = shardedMemberRepository.saveTeam(new Team("teamB"));
+        shardedMemberRepository.save(new Member("member1", 10, teamA));
+        shardedMemberRepository.save(new Member("member2", 20, teamA));
+        shardedMemberRepository.save(new Member("member3", 30, teamB));
+        shardedMemberRepository.save(new Member("member4", 40, teamB));
+        shardedMemberRepository.save(new Member("member5", 50));
+    }
+
+    @Test
+    public void routing() throws Exception {
+        //팀은 서로 다른 샤드에, 회원은 팀과 같은 샤드에
+        assertThat(memberShards.forTeam(teamA.getId()).getIndex())
+                .isNotEqualTo(memberShards.forTeam(teamB.getId()).getIndex());
+
+        //id 는 샤드 번호가 섞여 있어서 저장 순서와 id 순서가 다르다
+        List<MemberTeamDto> result = shardedMemberRepository.search(new MemberSearchCondition());
+        assertThat(result).extracting("username")
+                .containsExactlyInAnyOrder("member1", "member2", "member3", "member4", "member5");
+        assertThat(result).extracting("memberId").isSorted();
+        for (MemberTeamDto dto : result) {
+            Long teamId = dto.getTeamId() != null ? dto.getTeamId() : 0L;
+            assertThat(dto.getMemberId() % memberShards.size()).isEqualTo(teamId % memberShards.size());
+            assertThat(shardedMemberRepository.findById(dto.getMemberId())).contains(dto);
+        }
+    }
+
+    @Test
+    public void searchAcrossShards() throws Exception {
+        //given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+
+        //when
+        List<MemberTeamDto> result = shardedMemberRepository.search(condition);
+
+        //then
+        assertThat(result).extracting("username").containsExactlyInAnyOrder("member2", "member3", "member4", "member5");
+    }
+
+    @Test
+    public void searchPageMergesSort() throws Exception {
+        //given
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        //when
+        Page<MemberTeamDto> first = shardedMemberRepository.searchPageComplex(condition,
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "age")));
+        Page<MemberTeamDto> second = shardedMemberRepository.searchPageComplex(condition,
+                PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "age")));
+
+        //then
+        assertThat(first.getTotalElements()).isEqualTo(5);
+        assertThat(first.getContent()).extracting("age").containsExactly(50, 40);
+        assertThat(second.getContent()).extracting("age").containsExactly(30, 20);
+    }
+
+    @Test
+    public void scatterCancelsOtherShards() throws Exception {
+        //given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        //when
+        assertThatThrownBy(() -> memberShards.scatter(shard -> {
+            if (shard.getIndex() == 0) {
+                await(started);
+                throw new IllegalStateException("shard0 down");
+            }
+            try {
+                started.countDown();
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return null;
+        })).isInstanceOf(IllegalStateException.class).hasMessage("shard0 down");
+
+        //then 느린 샤드를 끝까지 기다리지 않고 중단시킨다
+        assertThat(interrupted.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void scatterStopsWhenLastShardFails() throws Exception {
+        //given 0번 샤드가 아직 실행 중일 때 마지막 샤드가 실패한다
+        int last = memberShards.size() - 1;
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        //when
+        assertThatThrownBy(() -> memberShards.scatter(shard -> {
+            if (shard.getIndex() == last) {
+                await(started);
+                throw new IllegalStateException("last shard down");
+            }
+            try {
+                started.countDown();
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return null;
+        })).isInstanceOf(IllegalStateException.class).hasMessage("last shard down");
+
+        //then 앞 샤드가 끝나기를 기다리지 않고 실패를 먼저 보고 중단시킨다
+        assertThat(interrupted.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}